@@ -31,10 +31,14 @@ public class ApiGatewaySecurityConfig {
                         
                         .pathMatchers(HttpMethod.GET, "/products").permitAll()
                         .pathMatchers(HttpMethod.GET,"/products/filter/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/products/reactive", "/products/reactive/filter/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/products/facets", "/products/search", "/products/suggest", "/products/bestsellers", "/products/delta", "/products/*/related").permitAll()
                         .pathMatchers("/products").hasRole("ADMIN")  
                         .pathMatchers("/products/**").hasRole("ADMIN")  
                         
                         .pathMatchers("/orders").hasAnyRole("CUSTOMER", "ADMIN")
+                        //customers reach only their own cart, checked by order service from the forwarded user
+                        .pathMatchers("/carts/**").hasAnyRole("CUSTOMER", "ADMIN")
                         
                         .pathMatchers("/users/**", "/orders/**", "/products/**").authenticated()
                         
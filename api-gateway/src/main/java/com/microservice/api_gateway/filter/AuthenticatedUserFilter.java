@@ -0,0 +1,49 @@
+package com.microservice.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+//tells the services who is calling: the name and roles of the authenticated principal are
+//forwarded as headers, values sent by the client under the same names are always dropped
+@Component
+public class AuthenticatedUserFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_HEADER = "X-User-Name";
+    public static final String ROLES_HEADER = "X-User-Roles";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange stripped = exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(USER_HEADER);
+                    headers.remove(ROLES_HEADER);
+                }))
+                .build();
+        return exchange.getPrincipal()
+                .filter(Authentication.class::isInstance)
+                .cast(Authentication.class)
+                .map(authentication -> stripped.mutate()
+                        .request(request -> request.headers(headers -> {
+                            headers.set(USER_HEADER, authentication.getName());
+                            headers.set(ROLES_HEADER, authentication.getAuthorities().stream()
+                                    .map(GrantedAuthority::getAuthority)
+                                    .collect(Collectors.joining(",")));
+                        }))
+                        .build())
+                .defaultIfEmpty(stripped)
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -1,11 +1,14 @@
 package com.microservice.order_service.client;
 
 import com.microservice.order_service.common.ProductModel;  
+import com.microservice.order_service.common.ProductStockPrice;
+import com.microservice.order_service.model.OrderBasket;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(name = "product-service")
 public interface ProductClient {
@@ -13,8 +16,20 @@ public interface ProductClient {
 	//To fetch the product by id from the product service 
     @GetMapping("/products/{id}")
     ProductModel getProductById(@PathVariable("id") Long id);
+
+    //To fetch only price and stock of the product, used while placing orders
+    @GetMapping("/products/{id}/stock-price")
+    ProductStockPrice getStockPrice(@PathVariable("id") Long id);
     
-    // update the product by id to the product in product service
-    @PutMapping("/products/{id}")
-    ProductModel updateProduct(@PathVariable("id") Long id, @RequestBody ProductModel product);
-}
\ No newline at end of file
+    // take the ordered quantity out of the product stock in product service
+    @PostMapping("/products/{id}/reserve")
+    ProductStockPrice reserveStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity);
+
+    // give back a reservation of an order that could not be placed
+    @PostMapping("/products/{id}/release")
+    ProductStockPrice releaseStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity);
+
+    // count the products of a placed order as bought together
+    @PostMapping("/products/related/orders")
+    void recordOrder(@RequestBody OrderBasket order);
+}
@@ -0,0 +1,44 @@
+package com.microservice.order_service.common;
+
+//DTO, price and stock only
+
+public class ProductStockPrice {
+    private Long id;
+    private Double price;
+    private Integer quantity;
+
+    // No-arg constructor
+    public ProductStockPrice() {}
+
+    // All-arg constructor
+    public ProductStockPrice(Long id, Double price, Integer quantity) {
+        this.id = id;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
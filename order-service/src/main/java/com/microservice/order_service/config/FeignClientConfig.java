@@ -0,0 +1,42 @@
+package com.microservice.order_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+//Pooled keep-alive transport for ProductClient and UserClient (Apache HttpClient 5).
+//Spring Cloud OpenFeign builds its CloseableHttpClient around this connection manager.
+@Configuration
+public class FeignClientConfig {
+
+    @Bean
+    public HttpClientConnectionManager hc5ConnectionManager(FeignHttpClientProperties properties, MeterRegistry registry) {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive(), properties.getTimeToLiveUnit()))
+                        .setValidateAfterInactivity(TimeValue.of(2, TimeUnit.SECONDS))
+                        .build())
+                .build();
+
+        //pool usage: leased, available, pending and max per route
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+        return new InstrumentedConnectionManager(pool, registry);
+    }
+}
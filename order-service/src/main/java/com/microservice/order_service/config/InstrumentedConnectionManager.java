@@ -0,0 +1,90 @@
+package com.microservice.order_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//Wraps the pooled connection manager used by the Feign clients to record how long
+//callers wait for a connection and whether the leased connection was reused or new
+public class InstrumentedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+    private final Timer leaseWait;
+    private final Counter reused;
+    private final Counter created;
+
+    public InstrumentedConnectionManager(HttpClientConnectionManager delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.leaseWait = Timer.builder("feign.pool.lease.wait")
+                .description("Time spent waiting for a pooled connection")
+                .register(registry);
+        this.reused = Counter.builder("feign.pool.connections")
+                .tag("state", "reused")
+                .register(registry);
+        this.created = Counter.builder("feign.pool.connections")
+                .tag("state", "created")
+                .register(registry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                ConnectionEndpoint endpoint = request.get(timeout);
+                leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (endpoint.isConnected()) {
+                    reused.increment();
+                } else {
+                    created.increment();
+                }
+                return endpoint;
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+}
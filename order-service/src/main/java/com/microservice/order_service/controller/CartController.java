@@ -0,0 +1,58 @@
+package com.microservice.order_service.controller;
+
+import com.microservice.order_service.model.CartModel;
+import com.microservice.order_service.model.OrderModel;
+import com.microservice.order_service.service.CartService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/carts")
+public class CartController {
+
+    //set by the gateway from the authenticated principal, client supplied values are dropped there
+    private static final String USER_HEADER = "X-User-Name";
+    private static final String ROLES_HEADER = "X-User-Roles";
+
+    @Autowired
+    private CartService cartService;
+
+    @Operation(summary = "Get the cart of a user") //customer or admin
+    @GetMapping("/{userId}")
+    public ResponseEntity<CartModel> getCart(@PathVariable("userId") Long userId,
+                                               @RequestHeader(value = USER_HEADER, required = false) String caller,
+                                               @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        cartService.checkAccess(userId, caller, roles);
+        return ResponseEntity.ok(cartService.getCart(userId));
+    }
+
+    @Operation(summary = "Add a product to the cart") //customer or admin
+    @PostMapping("/{userId}/items")
+    public ResponseEntity<CartModel> addItem(@PathVariable("userId") Long userId, @RequestParam("productId") Long productId,
+                                             @RequestParam(value = "quantity", defaultValue = "1") Integer quantity,
+                                             @RequestHeader(value = USER_HEADER, required = false) String caller,
+                                             @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        cartService.checkAccess(userId, caller, roles);
+        return ResponseEntity.ok(cartService.addItem(userId, productId, quantity));
+    }
+
+    @Operation(summary = "Remove a product from the cart") //customer or admin
+    @DeleteMapping("/{userId}/items/{productId}")
+    public ResponseEntity<CartModel> removeItem(@PathVariable("userId") Long userId, @PathVariable("productId") Long productId,
+                                                @RequestHeader(value = USER_HEADER, required = false) String caller,
+                                                @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        cartService.checkAccess(userId, caller, roles);
+        return ResponseEntity.ok(cartService.removeItem(userId, productId));
+    }
+
+    @Operation(summary = "Place an order from the cart") //customer or admin
+    @PostMapping("/{userId}/checkout")
+    public ResponseEntity<OrderModel> checkout(@PathVariable("userId") Long userId,
+                                               @RequestHeader(value = USER_HEADER, required = false) String caller,
+                                               @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        cartService.checkAccess(userId, caller, roles);
+        return ResponseEntity.ok(cartService.checkout(userId));
+    }
+}
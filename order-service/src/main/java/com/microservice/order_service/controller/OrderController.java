@@ -1,12 +1,16 @@
 package com.microservice.order_service.controller;
 
+import com.microservice.order_service.model.OrderBasket;
 import com.microservice.order_service.model.OrderModel;
+import com.microservice.order_service.model.OrderStatus;
 import com.microservice.order_service.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,10 +26,29 @@ public class OrderController {
         return ResponseEntity.ok(orderService.placeOrder(order));
     }
 
-    @Operation(summary = "Get all orders") //admin
+    @Operation(summary = "Get all orders, optionally by time range and status") //admin
     @GetMapping
-    public ResponseEntity<List<OrderModel>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<OrderModel>> getAllOrders(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "status", required = false) OrderStatus status) {
+        if (from == null && to == null && status == null) {
+            return ResponseEntity.ok(orderService.getAllOrders());
+        }
+        return ResponseEntity.ok(orderService.getOrdersByTimeRange(from, to, status));
+    }
+
+    @Operation(summary = "Get product ids of orders after an order id, one page at a time") //for product service
+    @GetMapping("/baskets")
+    public ResponseEntity<List<OrderBasket>> getOrderBaskets(@RequestParam(value = "afterId", defaultValue = "0") Long afterId,
+                                                             @RequestParam(value = "size", defaultValue = "1000") int size) {
+        return ResponseEntity.ok(orderService.getOrderBaskets(afterId, size));
+    }
+
+    @Operation(summary = "Get the id of the latest order, where a read of the order history stops") //for product service
+    @GetMapping("/baskets/last-id")
+    public ResponseEntity<Long> getLastOrderId() {
+        return ResponseEntity.ok(orderService.getLastOrderId());
     }
 
     @Operation(summary = "Get order by ID") //admin
@@ -0,0 +1,8 @@
+package com.microservice.order_service.exception;
+
+//the caller may not touch this cart, answered with 403
+public class CartAccessException extends RuntimeException {
+    public CartAccessException(String message) {
+        super(message);
+    }
+}
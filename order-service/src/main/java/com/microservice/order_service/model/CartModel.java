@@ -0,0 +1,37 @@
+package com.microservice.order_service.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Server-side shopping cart, kept in memory by CartStore (not a JPA entity)
+
+public class CartModel {
+    private Long userId;
+    private Map<Long, Integer> items = new LinkedHashMap<>();  // productId -> quantity
+
+    // No-arg constructor
+    public CartModel() {}
+
+    // All-arg constructor
+    public CartModel(Long userId, Map<Long, Integer> items) {
+        this.userId = userId;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Map<Long, Integer> getItems() {
+        return items;
+    }
+
+    public void setItems(Map<Long, Integer> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,85 @@
+package com.microservice.order_service.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Packs an order's lines into one byte array for the compact storage mode.
+//Layout: varint line count, then per line (sorted by product id) the varint
+//delta from the previous product id, the varint quantity and the 8 byte unit price.
+public final class OrderItemsCodec {
+
+    private OrderItemsCodec() {}
+
+    public static byte[] encode(Map<Long, Integer> items, Map<Long, Double> unitPrices) {
+        TreeMap<Long, Integer> sorted = new TreeMap<>(items);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4 + sorted.size() * 12);
+        writeVarLong(out, sorted.size());
+        long previousId = 0;
+        for (Map.Entry<Long, Integer> item : sorted.entrySet()) {
+            long productId = item.getKey();
+            if (productId < 0 || item.getValue() < 0) {
+                throw new IllegalArgumentException("Product ids and quantities must not be negative");
+            }
+            writeVarLong(out, productId - previousId);
+            writeVarLong(out, item.getValue());
+            Double price = unitPrices.get(productId);
+            long bits = Double.doubleToLongBits(price != null ? price : 0.0);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+            previousId = productId;
+        }
+        return out.toByteArray();
+    }
+
+    //productId -> quantity, in product id order
+    public static Map<Long, Integer> decodeQuantities(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        int count = (int) readVarLong(in);
+        Map<Long, Integer> items = new LinkedHashMap<>(count * 2);
+        long productId = 0;
+        for (int i = 0; i < count; i++) {
+            productId += readVarLong(in);
+            items.put(productId, (int) readVarLong(in));
+            in.position(in.position() + Double.BYTES);
+        }
+        return items;
+    }
+
+    //productId -> unit price at the time the order was placed
+    public static Map<Long, Double> decodeUnitPrices(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        int count = (int) readVarLong(in);
+        Map<Long, Double> prices = new LinkedHashMap<>(count * 2);
+        long productId = 0;
+        for (int i = 0; i < count; i++) {
+            productId += readVarLong(in);
+            readVarLong(in);
+            prices.put(productId, in.getDouble());
+        }
+        return prices;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -1,10 +1,19 @@
 package com.microservice.order_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_order_created_at", columnList = "created_at"),
+        @Index(name = "idx_order_status_created_at", columnList = "status, created_at")
+})
 public class OrderModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -13,16 +22,35 @@ public class OrderModel {
     private Long userId;
 
     @ElementCollection
-    @CollectionTable(name = "order_items", joinColumns = @JoinColumn(name = "order_id"))
+    @CollectionTable(name = "order_items", joinColumns = @JoinColumn(name = "order_id"),
+            foreignKey = @ForeignKey(name = "fk_order_items_order"))
     @MapKeyColumn(name = "product_id")
     @Column(name = "quantity")
     private Map<Long, Integer> orderItems = new HashMap<>();  // productId -> quantity
 
+    // compact storage mode: all lines packed into one column by OrderItemsCodec, order_items stays empty
+    @Lob
+    @JsonIgnore
+    @Column(name = "encoded_items")
+    private byte[] encodedItems;
+
+    @Transient
+    private Map<Long, Integer> decodedItems;
+
     private Double totalPrice;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    // set once on insert, used for the time-range queries and the monthly partitions in prod
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // No-arg constructor 
     public OrderModel() {}
 
@@ -53,6 +81,12 @@ public class OrderModel {
     }
 
     public Map<Long, Integer> getOrderItems() {
+        if (encodedItems != null) {
+            if (decodedItems == null) {
+                decodedItems = OrderItemsCodec.decodeQuantities(encodedItems);
+            }
+            return decodedItems;
+        }
         return orderItems;
     }
 
@@ -60,6 +94,15 @@ public class OrderModel {
         this.orderItems = orderItems;
     }
 
+    public byte[] getEncodedItems() {
+        return encodedItems;
+    }
+
+    public void setEncodedItems(byte[] encodedItems) {
+        this.encodedItems = encodedItems;
+        this.decodedItems = null;
+    }
+
     public Double getTotalPrice() {
         return totalPrice;
     }
@@ -75,4 +118,20 @@ public class OrderModel {
     public void setStatus(OrderStatus status) {
         this.status = status;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
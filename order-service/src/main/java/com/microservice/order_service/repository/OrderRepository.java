@@ -1,9 +1,13 @@
 package com.microservice.order_service.repository;
 
 import com.microservice.order_service.model.OrderModel;
+import com.microservice.order_service.model.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,4 +15,16 @@ public interface OrderRepository extends JpaRepository<OrderModel, Long> {
 	
 	//query to find the user by id
     List<OrderModel> findByUserId(Long userId);
+
+    //time range queries, served by the created_at and (status, created_at) indexes
+    List<OrderModel> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime from, LocalDateTime to);
+
+    List<OrderModel> findByStatusAndCreatedAtBetweenOrderByCreatedAtDesc(OrderStatus status, LocalDateTime from, LocalDateTime to);
+
+    //keyset page over all orders, used to hand the order history to product service
+    List<OrderModel> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    //id of the latest order, null when there is none
+    @Query("select max(o.id) from OrderModel o")
+    Long findMaxId();
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.microservice.order_service.service;
+
+import com.microservice.order_service.client.UserClient;
+import com.microservice.order_service.common.UserModel;
+import com.microservice.order_service.exception.CartAccessException;
+import com.microservice.order_service.exception.OrderException;
+import com.microservice.order_service.model.CartModel;
+import com.microservice.order_service.model.OrderModel;
+import com.microservice.order_service.store.CartStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+@Service
+public class CartService {
+    private static final Logger logger = LoggerFactory.getLogger(CartService.class);
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserClient userClient;
+
+    //admins reach every cart, anyone else only the cart of the user with their name.
+    //caller and roles are set by the gateway from the authenticated principal
+    public void checkAccess(Long userId, String caller, String roles) {
+        if (roles != null && Arrays.asList(roles.split(",")).contains("ROLE_ADMIN")) {
+            return;
+        }
+        if (caller == null || caller.isBlank()) {
+            throw new CartAccessException("No authenticated user for the cart of user: " + userId);
+        }
+        UserModel user;
+        try {
+            user = userClient.getUserById(userId);
+        } catch (Exception e) {
+            throw new OrderException("User not found with id: " + userId);
+        }
+        if (user == null || !caller.equals(user.getName())) {
+            logger.warn("User {} was denied the cart of user: {}", caller, userId);
+            throw new CartAccessException("Not allowed to access the cart of user: " + userId);
+        }
+    }
+
+    //fetching the cart of a user
+    public CartModel getCart(Long userId) {
+        logger.info("Fetching cart for user: {}", userId);
+        return cartStore.get(userId);
+    }
+
+    //adding quantity of a product to the cart, product and stock are checked at checkout
+    public CartModel addItem(Long userId, Long productId, Integer quantity) {
+        logger.info("Adding {} of product {} to cart of user: {}", quantity, productId, userId);
+        if (quantity == null || quantity <= 0) {
+            throw new OrderException("Quantity must be positive");
+        }
+        return cartStore.update(userId, items -> items.merge(productId, quantity, Integer::sum));
+    }
+
+    //removing a product from the cart
+    public CartModel removeItem(Long userId, Long productId) {
+        logger.info("Removing product {} from cart of user: {}", productId, userId);
+        return cartStore.update(userId, items -> items.remove(productId));
+    }
+
+    //turning the cart into an order, the cart is restored if the order fails
+    public OrderModel checkout(Long userId) {
+        logger.info("Checking out cart for user: {}", userId);
+        CartModel cart = cartStore.remove(userId);
+        if (cart.getItems().isEmpty()) {
+            throw new OrderException("Cart is empty for user: " + userId);
+        }
+
+        OrderModel order = new OrderModel();
+        order.setUserId(userId);
+        order.getOrderItems().putAll(cart.getItems());
+        try {
+            return orderService.placeOrder(order);
+        } catch (RuntimeException e) {
+            cartStore.update(userId, items -> cart.getItems().forEach((productId, quantity) -> items.merge(productId, quantity, Integer::sum)));
+            throw e;
+        }
+    }
+}
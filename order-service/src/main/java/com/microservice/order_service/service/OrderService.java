@@ -3,15 +3,25 @@ package com.microservice.order_service.service;
 import com.microservice.order_service.client.ProductClient;
 import com.microservice.order_service.client.UserClient;
 import com.microservice.order_service.exception.OrderException;
+import com.microservice.order_service.model.OrderBasket;
+import com.microservice.order_service.model.OrderItemsCodec;
 import com.microservice.order_service.model.OrderModel;
 import com.microservice.order_service.model.OrderStatus;
-import com.microservice.order_service.common.ProductModel;  
+import com.microservice.order_service.common.ProductStockPrice;
 import com.microservice.order_service.repository.OrderRepository;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +37,10 @@ public class OrderService {
 
     @Autowired
     private UserClient userClient;  
+
+    //"table" keeps one order_items row per line, "compact" packs the lines into one column
+    @Value("${order.items.storage:table}")
+    private String itemsStorage = "table";
     
     //adding a new order
     public OrderModel placeOrder(OrderModel order) {
@@ -40,36 +54,114 @@ public class OrderService {
         }
 
         double calculatedPrice = 0.0;
+        Map<Long, Double> unitPrices = new HashMap<>();
+        //lines already taken out of stock, given back if the order cannot be placed
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        List<Long> productIds = new ArrayList<>(order.getOrderItems().keySet());
+        OrderModel savedOrder;
+        try {
+            for (Map.Entry<Long, Integer> item : order.getOrderItems().entrySet()) {
+                Long productId = item.getKey();
+                Integer quantity = item.getValue();
 
-        
-        for (Map.Entry<Long, Integer> item : order.getOrderItems().entrySet()) {
-            Long productId = item.getKey();
-            Integer quantity = item.getValue();
+                ProductStockPrice product;
+                try {
+                    product = productClient.getStockPrice(productId);
+                } catch (FeignException e) {
+                    throw productError(e, productId);
+                }
+                if (product == null) {
+                    throw new OrderException("Product not found with id: " + productId);
+                }
+                if (product.getQuantity() < quantity) {
+                    throw new OrderException("Insufficient quantity for product: " + productId);
+                }
 
-            ProductModel product = productClient.getProductById(productId);
-            if (product == null) {
-                throw new OrderException("Product not found with id: " + productId);
-            }
-            if (product.getQuantity() < quantity) {
-                throw new OrderException("Insufficient quantity for product: " + productId);
+                //stock is decremented by product service in one conditional update
+                try {
+                    productClient.reserveStock(productId, quantity);
+                } catch (FeignException e) {
+                    throw productError(e, productId);
+                }
+                reserved.put(productId, quantity);
+
+                calculatedPrice += product.getPrice() * quantity;
+                unitPrices.put(productId, product.getPrice());
             }
 
-            
-            product.setQuantity(product.getQuantity() - quantity);
-            productClient.updateProduct(productId, product);
+            if ("compact".equalsIgnoreCase(itemsStorage)) {
+                order.setEncodedItems(OrderItemsCodec.encode(order.getOrderItems(), unitPrices));
+                order.setOrderItems(new HashMap<>());
+            }
 
-            calculatedPrice += product.getPrice() * quantity;
+            order.setTotalPrice(calculatedPrice);
+            order.setStatus(OrderStatus.PLACED);
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            releaseReserved(reserved);
+            throw e;
         }
-
-        order.setTotalPrice(calculatedPrice);
-        order.setStatus(OrderStatus.PLACED);
-        OrderModel savedOrder = orderRepository.save(order);
-
         
         userClient.addOrderToUser(order.getUserId(), savedOrder.getId());
 
+        //recommendations only, the order stands even if product service misses it
+        //the order id lets product service skip orders it already read from the order history
+        if (productIds.size() > 1) {
+            try {
+                productClient.recordOrder(new OrderBasket(savedOrder.getId(), productIds));
+            } catch (FeignException e) {
+                logger.warn("Could not record order {} for related products", savedOrder.getId(), e);
+            }
+        }
+
         return savedOrder;
     }
+
+    //best effort, a line that cannot be given back is logged so the stock can be corrected by hand
+    private void releaseReserved(Map<Long, Integer> reserved) {
+        reserved.forEach((productId, quantity) -> {
+            try {
+                productClient.releaseStock(productId, quantity);
+            } catch (FeignException e) {
+                logger.error("Could not release {} units of product {}", quantity, productId, e);
+            }
+        });
+    }
+
+    //product service answers a rule violation with 400 and its message. only a 409 or its
+    //insufficient stock message is reported as such, timeouts and 5xx are not the client's fault
+    private OrderException productError(FeignException e, Long productId) {
+        String message = e.contentUTF8();
+        if (e.status() == 404 || (e.status() == 400 && message.startsWith("Product not found"))) {
+            return new OrderException("Product not found with id: " + productId);
+        }
+        if (e.status() == 409 || (e.status() == 400 && message.startsWith("Insufficient quantity"))) {
+            return new OrderException("Insufficient quantity for product: " + productId);
+        }
+        if (e.status() == 400 && !message.isBlank()) {
+            return new OrderException(message);
+        }
+        logger.warn("Product service failed for product {} with status {}", productId, e.status(), e);
+        return new OrderException("Product service unavailable, please try again later");
+    }
+
+    //product ids of the orders after afterId, one page in id order
+    @Transactional(readOnly = true)
+    public List<OrderBasket> getOrderBaskets(Long afterId, int size) {
+        if (size <= 0 || size > 10000) {
+            throw new OrderException("Size must be between 1 and 10000");
+        }
+        logger.info("Fetching {} order baskets after order: {}", size, afterId);
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size)).stream()
+                .map(order -> new OrderBasket(order.getId(), new ArrayList<>(order.getOrderItems().keySet())))
+                .toList();
+    }
+    
+    //id of the latest order, 0 when there is none
+    public Long getLastOrderId() {
+        Long lastId = orderRepository.findMaxId();
+        return lastId != null ? lastId : 0L;
+    }
     
     //fetching all orders
     public List<OrderModel> getAllOrders() {
@@ -77,6 +169,20 @@ public class OrderService {
         return orderRepository.findAll();
     }
     
+    //fetching orders placed in a time window, optionally filtered by status
+    public List<OrderModel> getOrdersByTimeRange(LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        if (start.isAfter(end)) {
+            throw new OrderException("Invalid time range: from must be before to");
+        }
+        logger.info("Fetching orders between {} and {} with status: {}", start, end, status);
+        if (status != null) {
+            return orderRepository.findByStatusAndCreatedAtBetweenOrderByCreatedAtDesc(status, start, end);
+        }
+        return orderRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(start, end);
+    }
+
     //fetching orders by id
     public OrderModel getOrderById(Long id) {
         logger.info("Fetching order by id: {}", id);
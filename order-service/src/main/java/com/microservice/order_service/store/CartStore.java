@@ -0,0 +1,249 @@
+package com.microservice.order_service.store;
+
+import com.microservice.order_service.model.CartModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+//In-memory cart store. Carts are spread over shards by user id and every shard has its own
+//lock, so edits of different users rarely contend. Each shard is an access-ordered map:
+//the least recently used cart is dropped when a shard is full, idle carts are swept
+//periodically and the whole store is snapshotted to disk so a restart keeps the carts.
+@Component
+public class CartStore {
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Shard[] shards;
+    private final int maxCartsPerShard;
+    private final long idleTimeoutMillis;
+    private final Path snapshotFile;
+
+    public CartStore(@Value("${cart.store.shards:16}") int shardCount,
+                     @Value("${cart.store.max-carts:100000}") int maxCarts,
+                     @Value("${cart.store.idle-timeout-minutes:120}") long idleTimeoutMinutes,
+                     @Value("${cart.snapshot.file:./carts.snapshot}") String snapshotFile) {
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.maxCartsPerShard = Math.max(1, maxCarts / shardCount);
+        this.idleTimeoutMillis = idleTimeoutMinutes * 60_000L;
+        this.snapshotFile = snapshotFile.isBlank() ? null : Paths.get(snapshotFile);
+    }
+
+    //copy of the user's cart, empty when there is none
+    public CartModel get(Long userId) {
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.carts.get(userId);
+            if (entry == null) {
+                return new CartModel(userId, new LinkedHashMap<>());
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            return new CartModel(userId, new LinkedHashMap<>(entry.items));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    //applies an edit to the user's cart under the shard lock and returns a copy of the result
+    public CartModel update(Long userId, Consumer<Map<Long, Integer>> edit) {
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.carts.get(userId);
+            if (entry == null) {
+                entry = new Entry();
+                shard.carts.put(userId, entry);
+            }
+            edit.accept(entry.items);
+            entry.lastAccess = System.currentTimeMillis();
+            if (entry.items.isEmpty()) {
+                shard.carts.remove(userId);
+            } else if (shard.carts.size() > maxCartsPerShard) {
+                evictEldest(shard);
+            }
+            return new CartModel(userId, new LinkedHashMap<>(entry.items));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    //removes the cart and returns what was in it
+    public CartModel remove(Long userId) {
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.carts.remove(userId);
+            return new CartModel(userId, entry == null ? new LinkedHashMap<>() : entry.items);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.carts.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    //drops carts that have not been touched within the idle timeout
+    @Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int evicted = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                //access order: the eldest entries come first, stop at the first active cart
+                Iterator<Entry> it = shard.carts.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().lastAccess >= cutoff) {
+                        break;
+                    }
+                    it.remove();
+                    evicted++;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle carts", evicted);
+        }
+        return evicted;
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                logger.warn("Ignoring cart snapshot with unknown version: {}", snapshotFile);
+                return;
+            }
+            int carts = in.readInt();
+            for (int i = 0; i < carts; i++) {
+                long userId = in.readLong();
+                Entry entry = new Entry();
+                entry.lastAccess = in.readLong();
+                int lines = in.readInt();
+                for (int j = 0; j < lines; j++) {
+                    entry.items.put(in.readLong(), in.readInt());
+                }
+                Shard shard = shardFor(userId);
+                shard.lock.lock();
+                try {
+                    shard.carts.put(userId, entry);
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            logger.info("Loaded {} carts from {}", carts, snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Could not load cart snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    //writes to a temp file and moves it over the old snapshot, one shard locked at a time
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${cart.snapshot.interval-ms:60000}", initialDelayString = "${cart.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path dir = snapshotFile.toAbsolutePath().getParent();
+            Path tmp = Files.createTempFile(dir, "carts", ".tmp");
+            try {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                DataOutputStream bodyOut = new DataOutputStream(body);
+                int carts = 0;
+                for (Shard shard : shards) {
+                    shard.lock.lock();
+                    try {
+                        for (Map.Entry<Long, Entry> cart : shard.carts.entrySet()) {
+                            bodyOut.writeLong(cart.getKey());
+                            bodyOut.writeLong(cart.getValue().lastAccess);
+                            bodyOut.writeInt(cart.getValue().items.size());
+                            for (Map.Entry<Long, Integer> item : cart.getValue().items.entrySet()) {
+                                bodyOut.writeLong(item.getKey());
+                                bodyOut.writeInt(item.getValue());
+                            }
+                            carts++;
+                        }
+                    } finally {
+                        shard.lock.unlock();
+                    }
+                }
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(SNAPSHOT_VERSION);
+                    out.writeInt(carts);
+                    body.writeTo(out);
+                }
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Snapshotted {} carts to {}", carts, snapshotFile);
+            } finally {
+                //gone after the move, left behind only when writing or moving failed
+                deleteQuietly(tmp);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not snapshot carts to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path tmp) {
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            logger.warn("Could not delete cart snapshot temp file {}: {}", tmp, e.getMessage());
+        }
+    }
+
+    private void evictEldest(Shard shard) {
+        Iterator<Long> it = shard.carts.keySet().iterator();
+        Long eldest = it.next();
+        it.remove();
+        logger.debug("Cart store shard full, evicted cart of user: {}", eldest);
+    }
+
+    private Shard shardFor(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId) * 0x9E3779B9, shards.length)];
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<Long, Entry> carts = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static final class Entry {
+        final Map<Long, Integer> items = new LinkedHashMap<>();
+        long lastAccess = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,29 @@
+-- Monthly RANGE partitioning of order_model on created_at (MySQL 8, prod profile).
+-- Run once by hand after hibernate has created the tables; ddl-auto=update leaves partitions alone.
+--
+-- MySQL requires the partitioning column in every unique key and does not allow
+-- foreign keys on partitioned tables, so the primary key becomes (id, created_at)
+-- and the order_items -> order_model foreign key is dropped. JPA still maps id alone.
+
+ALTER TABLE order_items DROP FOREIGN KEY fk_order_items_order;
+
+UPDATE order_model SET created_at = NOW() WHERE created_at IS NULL;
+
+ALTER TABLE order_model
+    MODIFY created_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE order_model
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p2025_10 VALUES LESS THAN ('2025-11-01'),
+        PARTITION p2025_11 VALUES LESS THAN ('2025-12-01'),
+        PARTITION p2025_12 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Monthly maintenance: split the next month out of p_future, e.g.
+-- ALTER TABLE order_model REORGANIZE PARTITION p_future INTO (
+--     PARTITION p2026_01 VALUES LESS THAN ('2026-02-01'),
+--     PARTITION p_future VALUES LESS THAN (MAXVALUE)
+-- );
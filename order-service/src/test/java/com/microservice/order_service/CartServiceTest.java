@@ -0,0 +1,108 @@
+package com.microservice.order_service;
+
+import com.microservice.order_service.client.UserClient;
+import com.microservice.order_service.common.UserModel;
+import com.microservice.order_service.exception.CartAccessException;
+import com.microservice.order_service.exception.OrderException;
+import com.microservice.order_service.model.OrderModel;
+import com.microservice.order_service.model.OrderStatus;
+import com.microservice.order_service.service.CartService;
+import com.microservice.order_service.service.OrderService;
+import com.microservice.order_service.store.CartStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Spy
+    private CartStore cartStore = new CartStore(4, 100, 120, "");
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private UserClient userClient;
+
+    @InjectMocks
+    private CartService cartService;
+
+    @Test
+    void checkAccess_allowsOwnerAndAdmin() {
+        UserModel user = new UserModel();
+        user.setName("customer");
+        when(userClient.getUserById(1L)).thenReturn(user);
+
+        assertDoesNotThrow(() -> cartService.checkAccess(1L, "customer", "ROLE_CUSTOMER"));
+        assertDoesNotThrow(() -> cartService.checkAccess(1L, "admin", "ROLE_ADMIN"));
+        verify(userClient, times(1)).getUserById(1L);
+    }
+
+    @Test
+    void checkAccess_deniesOtherUsersCart() {
+        UserModel user = new UserModel();
+        user.setName("someone-else");
+        when(userClient.getUserById(1L)).thenReturn(user);
+
+        CartAccessException exception = assertThrows(CartAccessException.class,
+                () -> cartService.checkAccess(1L, "customer", "ROLE_CUSTOMER"));
+        assertEquals("Not allowed to access the cart of user: 1", exception.getMessage());
+        assertThrows(CartAccessException.class, () -> cartService.checkAccess(1L, null, null));
+    }
+
+    @Test
+    void addItem_mergesQuantities() {
+        cartService.addItem(1L, 10L, 2);
+
+        assertEquals(Map.of(10L, 5), cartService.addItem(1L, 10L, 3).getItems());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void addItem_throwsWhenQuantityNotPositive() {
+        OrderException exception = assertThrows(OrderException.class, () -> cartService.addItem(1L, 10L, 0));
+        assertEquals("Quantity must be positive", exception.getMessage());
+    }
+
+    @Test
+    void checkout_placesOrderAndClearsCart() {
+        cartService.addItem(1L, 10L, 2);
+        when(orderService.placeOrder(any(OrderModel.class)))
+                .thenAnswer(invocation -> {
+                    OrderModel order = invocation.getArgument(0);
+                    order.setStatus(OrderStatus.PLACED);
+                    return order;
+                });
+
+        OrderModel result = cartService.checkout(1L);
+
+        assertEquals(Map.of(10L, 2), result.getOrderItems());
+        assertTrue(cartService.getCart(1L).getItems().isEmpty());
+    }
+
+    @Test
+    void checkout_restoresCartWhenOrderFails() {
+        cartService.addItem(1L, 10L, 2);
+        when(orderService.placeOrder(any(OrderModel.class))).thenThrow(new OrderException("Insufficient quantity for product: 10"));
+
+        assertThrows(OrderException.class, () -> cartService.checkout(1L));
+        assertEquals(Map.of(10L, 2), cartService.getCart(1L).getItems());
+    }
+
+    @Test
+    void checkout_throwsWhenCartEmpty() {
+        OrderException exception = assertThrows(OrderException.class, () -> cartService.checkout(1L));
+        assertEquals("Cart is empty for user: 1", exception.getMessage());
+        verifyNoInteractions(orderService);
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservice.order_service;
+
+import com.microservice.order_service.model.CartModel;
+import com.microservice.order_service.store.CartStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void update_addsAndRemovesItems() {
+        CartStore store = new CartStore(4, 100, 120, "");
+
+        store.update(1L, items -> items.merge(10L, 2, Integer::sum));
+        CartModel cart = store.update(1L, items -> items.merge(10L, 1, Integer::sum));
+        assertEquals(Map.of(10L, 3), cart.getItems());
+
+        store.update(1L, items -> items.remove(10L));
+        assertTrue(store.get(1L).getItems().isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void update_evictsLeastRecentlyUsedWhenFull() {
+        CartStore store = new CartStore(1, 2, 120, "");
+
+        store.update(1L, items -> items.put(10L, 1));
+        store.update(2L, items -> items.put(10L, 1));
+        store.get(1L);
+        store.update(3L, items -> items.put(10L, 1));
+
+        assertEquals(2, store.size());
+        assertTrue(store.get(2L).getItems().isEmpty());
+        assertFalse(store.get(1L).getItems().isEmpty());
+    }
+
+    @Test
+    void evictIdle_dropsExpiredCarts() throws InterruptedException {
+        CartStore expiring = new CartStore(2, 100, 0, "");
+        expiring.update(1L, items -> items.put(10L, 1));
+        Thread.sleep(5);
+        assertEquals(1, expiring.evictIdle());
+        assertEquals(0, expiring.size());
+
+        CartStore active = new CartStore(2, 100, 120, "");
+        active.update(1L, items -> items.put(10L, 1));
+        assertEquals(0, active.evictIdle());
+        assertEquals(1, active.size());
+    }
+
+    @Test
+    void snapshot_restoresCartsOnReload() {
+        String file = tempDir.resolve("carts.snapshot").toString();
+        CartStore store = new CartStore(4, 100, 120, file);
+        store.update(1L, items -> items.put(10L, 2));
+        store.update(2L, items -> items.put(20L, 1));
+        store.snapshot();
+
+        CartStore reloaded = new CartStore(8, 100, 120, file);
+        reloaded.loadSnapshot();
+
+        assertEquals(2, reloaded.size());
+        assertEquals(Map.of(10L, 2), reloaded.get(1L).getItems());
+    }
+
+    @Test
+    void snapshot_removesTempFileWhenMoveFails() throws IOException {
+        //a non-empty directory in place of the snapshot cannot be replaced
+        Path file = Files.createDirectory(tempDir.resolve("carts.snapshot"));
+        Files.createFile(file.resolve("keep"));
+        CartStore store = new CartStore(4, 100, 120, file.toString());
+        store.update(1L, items -> items.put(10L, 2));
+
+        store.snapshot();
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
@@ -11,11 +11,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -78,4 +80,20 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].userId").value(1));
     }
+
+    @Test
+    void getOrdersByTimeRange_success() throws Exception {
+        Map<Long, Integer> items = new HashMap<>();
+        items.put(1L, 2);
+        List<OrderModel> orders = List.of(new OrderModel(1L, 1L, items, 20.0, OrderStatus.PLACED));
+        when(orderService.getOrdersByTimeRange(eq(LocalDateTime.of(2025, 10, 1, 0, 0)), eq(LocalDateTime.of(2025, 10, 2, 0, 0)), eq(OrderStatus.PLACED)))
+                .thenReturn(orders);
+
+        mockMvc.perform(get("/orders")
+                .param("from", "2025-10-01T00:00:00")
+                .param("to", "2025-10-02T00:00:00")
+                .param("status", "PLACED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("PLACED"));
+    }
 }
\ No newline at end of file
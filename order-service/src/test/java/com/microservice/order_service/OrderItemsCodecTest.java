@@ -0,0 +1,37 @@
+package com.microservice.order_service;
+
+import com.microservice.order_service.model.OrderItemsCodec;
+import com.microservice.order_service.model.OrderModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderItemsCodecTest {
+
+    @Test
+    void encodeDecode_roundTrip() {
+        Map<Long, Integer> items = new HashMap<>();
+        items.put(300L, 1);
+        items.put(5L, 20);
+        items.put(1_000_000L, 3);
+        Map<Long, Double> prices = Map.of(300L, 9.99, 5L, 150.0, 1_000_000L, 0.5);
+
+        byte[] encoded = OrderItemsCodec.encode(items, prices);
+
+        assertEquals(items, OrderItemsCodec.decodeQuantities(encoded));
+        assertEquals(prices, OrderItemsCodec.decodeUnitPrices(encoded));
+    }
+
+    @Test
+    void orderModel_decodesEncodedItemsOnRead() {
+        Map<Long, Integer> items = Map.of(1L, 2, 2L, 4);
+        OrderModel order = new OrderModel(1L, 1L, new HashMap<>(), 20.0, null);
+
+        order.setEncodedItems(OrderItemsCodec.encode(items, Map.of(1L, 5.0, 2L, 2.5)));
+
+        assertEquals(items, order.getOrderItems());
+    }
+}
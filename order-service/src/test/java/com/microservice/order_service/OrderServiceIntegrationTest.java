@@ -2,7 +2,7 @@ package com.microservice.order_service;
 
 import com.microservice.order_service.client.ProductClient;
 import com.microservice.order_service.client.UserClient;
-import com.microservice.order_service.common.ProductModel;
+import com.microservice.order_service.common.ProductStockPrice;
 import com.microservice.order_service.common.Role;
 import com.microservice.order_service.common.UserModel;
 import com.microservice.order_service.model.OrderModel;
@@ -49,9 +49,9 @@ class OrderServiceIntegrationTest {
         UserModel user = new UserModel(1L, "Test User", Role.CUSTOMER, List.of());
         when(userClient.getUserById(1L)).thenReturn(user);
 
-        ProductModel product = new ProductModel(1L, "Test Product", "Desc", "Cat", 10.0, 5);
-        when(productClient.getProductById(1L)).thenReturn(product);
-        when(productClient.updateProduct(eq(1L), any(ProductModel.class))).thenReturn(product);
+        ProductStockPrice product = new ProductStockPrice(1L, 10.0, 5);
+        when(productClient.getStockPrice(1L)).thenReturn(product);
+        when(productClient.reserveStock(1L, 2)).thenReturn(new ProductStockPrice(1L, 10.0, 3));
 
         doNothing().when(userClient).addOrderToUser(eq(1L), any(Long.class));
 
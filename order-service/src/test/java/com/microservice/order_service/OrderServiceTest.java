@@ -2,23 +2,30 @@ package com.microservice.order_service;
 
 import com.microservice.order_service.client.ProductClient;
 import com.microservice.order_service.client.UserClient;
-import com.microservice.order_service.common.ProductModel;
+import com.microservice.order_service.common.ProductStockPrice;
 import com.microservice.order_service.common.Role;
 import com.microservice.order_service.common.UserModel;
 import com.microservice.order_service.exception.OrderException;
+import com.microservice.order_service.model.OrderBasket;
 import com.microservice.order_service.model.OrderModel;
 import com.microservice.order_service.model.OrderStatus;
 import com.microservice.order_service.repository.OrderRepository;
 import com.microservice.order_service.service.OrderService;
 
 import feign.FeignException;
+import feign.Request;
+import feign.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +33,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,7 +53,7 @@ class OrderServiceTest {
     private OrderService orderService;
 
     private OrderModel testOrder;
-    private ProductModel testProduct;
+    private ProductStockPrice testProduct;
     private UserModel testUser;
 
     @BeforeEach
@@ -53,15 +62,15 @@ class OrderServiceTest {
         items.put(1L, 2);
 
         testOrder = new OrderModel(null, 1L, items, null, null);
-        testProduct = new ProductModel(1L, "Test Product", "Desc", "Cat", 10.0, 5);
+        testProduct = new ProductStockPrice(1L, 10.0, 5);
         testUser = new UserModel(1L, "Test User", Role.CUSTOMER, List.of());
     }
 
     @Test
     void placeOrder_success() {
         when(userClient.getUserById(1L)).thenReturn(testUser);
-        when(productClient.getProductById(1L)).thenReturn(testProduct);
-        when(productClient.updateProduct(eq(1L), any(ProductModel.class))).thenReturn(testProduct);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(productClient.reserveStock(1L, 2)).thenReturn(new ProductStockPrice(1L, 10.0, 3));
         when(orderRepository.save(any(OrderModel.class))).thenReturn(new OrderModel(1L, 1L, testOrder.getOrderItems(), 20.0, OrderStatus.PLACED));
         doNothing().when(userClient).addOrderToUser(1L, 1L);
 
@@ -70,11 +79,72 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(20.0, result.getTotalPrice());
         assertEquals(OrderStatus.PLACED, result.getStatus());
-        verify(productClient).updateProduct(eq(1L), argThat(p -> p.getQuantity() == 3));
+        verify(productClient).reserveStock(1L, 2);
         verify(userClient).addOrderToUser(1L, 1L);
         verify(orderRepository).save(any(OrderModel.class));
     }
 
+    @Test
+    void placeOrder_compactStorageEncodesItems() {
+        ReflectionTestUtils.setField(orderService, "itemsStorage", "compact");
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(orderRepository.save(any(OrderModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderModel result = orderService.placeOrder(testOrder);
+
+        assertNotNull(result.getEncodedItems());
+        assertEquals(Map.of(1L, 2), result.getOrderItems());
+        assertEquals(20.0, result.getTotalPrice());
+    }
+
+    @Test
+    void placeOrder_recordsProductsBoughtTogether() {
+        testOrder.getOrderItems().put(2L, 1);
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(productClient.getStockPrice(2L)).thenReturn(new ProductStockPrice(2L, 5.0, 5));
+        when(orderRepository.save(any(OrderModel.class))).thenAnswer(invocation -> {
+            OrderModel saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        doThrow(FeignException.class).when(productClient).recordOrder(any(OrderBasket.class));
+
+        OrderModel result = orderService.placeOrder(testOrder);
+
+        //a failed notification does not fail the order
+        assertEquals(25.0, result.getTotalPrice());
+        verify(productClient).recordOrder(argThat(basket -> basket.getOrderId() == 1L
+                && basket.getProductIds().size() == 2 && basket.getProductIds().containsAll(List.of(1L, 2L))));
+    }
+
+    @Test
+    void getLastOrderId_zeroWithoutOrders() {
+        when(orderRepository.findMaxId()).thenReturn(null);
+
+        assertEquals(0L, orderService.getLastOrderId());
+    }
+
+    @Test
+    void getOrderBaskets_success() {
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(eq(5L), any(Limit.class)))
+                .thenReturn(List.of(new OrderModel(6L, 1L, Map.of(1L, 2, 3L, 1), 20.0, OrderStatus.PLACED)));
+
+        List<OrderBasket> result = orderService.getOrderBaskets(5L, 100);
+
+        assertEquals(1, result.size());
+        assertEquals(6L, result.get(0).getOrderId());
+        assertEquals(List.of(1L, 3L), result.get(0).getProductIds().stream().sorted().toList());
+        verify(orderRepository).findByIdGreaterThanOrderByIdAsc(5L, Limit.of(100));
+    }
+
+    @Test
+    void getOrderBaskets_throwsWhenSizeInvalid() {
+        assertThrows(OrderException.class, () -> orderService.getOrderBaskets(0L, 0));
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     void placeOrder_throwsWhenUserNotFound() {
         when(userClient.getUserById(1L)).thenThrow(FeignException.class);
@@ -87,7 +157,7 @@ class OrderServiceTest {
     @Test
     void placeOrder_throwsWhenProductNotFound() {
         when(userClient.getUserById(1L)).thenReturn(testUser);
-        when(productClient.getProductById(1L)).thenReturn(null);
+        when(productClient.getStockPrice(1L)).thenReturn(null);
 
         OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
         assertEquals("Product not found with id: 1", exception.getMessage());
@@ -95,11 +165,62 @@ class OrderServiceTest {
         verifyNoInteractions(orderRepository);
     }
 
+    @Test
+    void placeOrder_throwsWhenReservationRejected() {
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(productClient.reserveStock(1L, 2)).thenThrow(productError(400, "Insufficient quantity for product: 1"));
+
+        OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
+        assertEquals("Insufficient quantity for product: 1", exception.getMessage());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    //the lines reserved before the failing one are given back
+    void placeOrder_releasesReservedLinesWhenLaterLineFails() {
+        testOrder.getOrderItems().put(2L, 1);
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(productClient.getStockPrice(2L)).thenReturn(new ProductStockPrice(2L, 5.0, 4));
+        when(productClient.reserveStock(1L, 2)).thenReturn(new ProductStockPrice(1L, 10.0, 3));
+        when(productClient.reserveStock(2L, 1)).thenThrow(productError(400, "Insufficient quantity for product: 2"));
+
+        OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
+        assertEquals("Insufficient quantity for product: 2", exception.getMessage());
+        verify(productClient).releaseStock(1L, 2);
+        verify(productClient, never()).releaseStock(eq(2L), anyInt());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    //a missing product is not reported as a stock problem
+    void placeOrder_throwsNotFoundOn404() {
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenThrow(productError(404, ""));
+
+        OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
+        assertEquals("Product not found with id: 1", exception.getMessage());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    //neither is a product service that is down
+    void placeOrder_throwsUnavailableOnServerError() {
+        when(userClient.getUserById(1L)).thenReturn(testUser);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
+        when(productClient.reserveStock(1L, 2)).thenThrow(productError(503, "Service Unavailable"));
+
+        OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
+        assertEquals("Product service unavailable, please try again later", exception.getMessage());
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     void placeOrder_throwsWhenInsufficientQuantity() {
         testOrder.getOrderItems().put(1L, 10); // More than available
         when(userClient.getUserById(1L)).thenReturn(testUser);
-        when(productClient.getProductById(1L)).thenReturn(testProduct);
+        when(productClient.getStockPrice(1L)).thenReturn(testProduct);
 
         OrderException exception = assertThrows(OrderException.class, () -> orderService.placeOrder(testOrder));
         assertEquals("Insufficient quantity for product: 1", exception.getMessage());
@@ -146,4 +267,39 @@ class OrderServiceTest {
         assertEquals(1, result.size());
         verify(orderRepository).findByUserId(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getOrdersByTimeRange_withStatus() {
+        LocalDateTime from = LocalDateTime.of(2025, 10, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 10, 2, 0, 0);
+        when(orderRepository.findByStatusAndCreatedAtBetweenOrderByCreatedAtDesc(OrderStatus.PLACED, from, to)).thenReturn(List.of(testOrder));
+
+        List<OrderModel> result = orderService.getOrdersByTimeRange(from, to, OrderStatus.PLACED);
+
+        assertEquals(1, result.size());
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void getOrdersByTimeRange_throwsWhenFromAfterTo() {
+        LocalDateTime from = LocalDateTime.of(2025, 10, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+        OrderException exception = assertThrows(OrderException.class, () -> orderService.getOrdersByTimeRange(from, to, null));
+        assertEquals("Invalid time range: from must be before to", exception.getMessage());
+        verifyNoInteractions(orderRepository);
+    }
+
+    //the exception Feign raises for an error response of product service
+    private FeignException productError(int status, String body) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://product-service/products/1/reserve", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("ProductClient#reserveStock", Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Map.of())
+                .body(body, StandardCharsets.UTF_8)
+                .build());
+    }
+}
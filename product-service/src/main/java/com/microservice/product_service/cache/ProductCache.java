@@ -0,0 +1,76 @@
+package com.microservice.product_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.microservice.product_service.model.ProductCacheStats;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+//Bounded read-through cache in front of the product primary key lookup.
+//Caffeine evicts with W-TinyLFU, and concurrent misses for one id share a single load.
+@Component
+public class ProductCache implements ProductChangeListener {
+
+    private final Cache<Long, ProductModel> cache;
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.expire-after-write-minutes:10}") long expireAfterWriteMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                //safety net for rows changed without going through the service
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats()
+                .build();
+    }
+
+    //cached product or the result of loader, null results are not cached
+    public ProductModel get(Long id, Function<Long, ProductModel> loader) {
+        return cache.get(id, loader);
+    }
+
+    public ProductCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new ProductCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    //fills the cache before the first request, used by the startup warm-up
+    public void preload(List<ProductModel> products) {
+        for (ProductModel product : products) {
+            cache.put(product.getId(), product);
+        }
+    }
+
+    //drops one product whose row was changed around the listeners, e.g. by the stock journal flush
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        cache.invalidateAll();
+    }
+
+    //write-through, the next read sees the saved row without a database round trip
+    @Override
+    public void productSaved(ProductModel product) {
+        cache.put(product.getId(), product);
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        cache.invalidate(id);
+    }
+}
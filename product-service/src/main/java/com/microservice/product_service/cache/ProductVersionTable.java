@@ -0,0 +1,79 @@
+package com.microservice.product_service.cache;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+//id -> (version, last modified) of every product, so conditional GETs can be answered
+//with 304 without loading the entity. Missing entries just mean the product is loaded once.
+@Component
+public class ProductVersionTable implements ProductChangeListener {
+
+    private final ConcurrentHashMap<Long, ProductVersion> versions = new ConcurrentHashMap<>();
+
+    public ProductVersion get(Long id) {
+        return versions.get(id);
+    }
+
+    public ProductVersion record(ProductModel product) {
+        ProductVersion version = ProductVersion.of(product);
+        versions.put(product.getId(), version);
+        return version;
+    }
+
+    //forgets a version bumped around the listeners, e.g. by the stock journal flush
+    public void remove(Long id) {
+        versions.remove(id);
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        versions.clear();
+        for (ProductModel product : products) {
+            record(product);
+        }
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        record(product);
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        versions.remove(id);
+    }
+
+    //the reservation bumped the version in the database, reload on the next read
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        versions.remove(id);
+    }
+
+    public static final class ProductVersion {
+        private final long version;
+        private final long lastModified;
+
+        private ProductVersion(long version, long lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+
+        public static ProductVersion of(ProductModel product) {
+            return new ProductVersion(product.getVersion() != null ? product.getVersion() : 0L,
+                    product.getLastModified() != null ? product.getLastModified().toEpochMilli() : -1L);
+        }
+
+        public String getEtag() {
+            return "\"" + version + "\"";
+        }
+
+        //epoch millis, -1 when unknown
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservice.product_service.client;
+
+import com.microservice.product_service.model.OrderBasket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+//Reads the order history from the order service, one page of baskets at a time
+@Component
+public class OrderHistoryClient {
+
+    private final RestClient restClient;
+
+    @Autowired
+    public OrderHistoryClient(RestClient.Builder loadBalancedRestClientBuilder) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl("http://order-service").build();
+    }
+
+    //orders with an id above afterId in id order, at most size of them
+    public List<OrderBasket> getBaskets(long afterId, int size) {
+        return restClient.get()
+                .uri("/orders/baskets?afterId={afterId}&size={size}", afterId, size)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<OrderBasket>>() {});
+    }
+
+    //id of the newest order, 0 without orders
+    public long getLastOrderId() {
+        Long lastId = restClient.get()
+                .uri("/orders/baskets/last-id")
+                .retrieve()
+                .body(Long.class);
+        return lastId != null ? lastId : 0;
+    }
+}
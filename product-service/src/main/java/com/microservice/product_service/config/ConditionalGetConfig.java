@@ -0,0 +1,20 @@
+package com.microservice.product_service.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+//List endpoints have no single version, so their ETag is a hash of the response body.
+//That still saves the bandwidth of unchanged results; GET /products/{id} uses real versions.
+@Configuration
+public class ConditionalGetConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/products/filter/*");
+        registration.setName("listEtagFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,54 @@
+package com.microservice.product_service.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+//Non-blocking client for the /products/reactive read endpoints, on the same database as the
+//JPA data source; writes and transactions stay on JPA. The connection pool is built here from
+//product.reactive.* and deliberately not a bean: a ConnectionFactory bean, or the R2DBC
+//auto-configuration, makes Boot's DataSource auto-configuration back off, taking JPA with it.
+@Configuration
+@ConditionalOnProperty(name = "product.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveReadConfig {
+
+    @Value("${product.reactive.url}")
+    private String url;
+
+    @Value("${product.reactive.username:}")
+    private String username;
+
+    @Value("${product.reactive.password:}")
+    private String password;
+
+    @Value("${product.reactive.pool-max-size:20}")
+    private int poolMaxSize;
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolMaxSize)
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.microservice.product_service.controller;
+
+import com.microservice.product_service.model.ProductInvalidation;
+import com.microservice.product_service.peer.PeerInvalidationReceiver;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/products/peers")
+@ConditionalOnProperty(name = "product.peers.enabled", havingValue = "true")
+public class PeerInvalidationController {
+
+    @Autowired
+    private PeerInvalidationReceiver receiver;
+
+    @Operation(summary = "Apply a batch of writes made on another product service instance") //For internal use between instances
+    @PostMapping("/invalidations")
+    public ResponseEntity<Void> receive(@RequestBody ProductInvalidation batch) {
+        receiver.receive(batch);
+        return ResponseEntity.ok().build();
+    }
+}
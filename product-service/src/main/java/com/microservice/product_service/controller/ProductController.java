@@ -1,13 +1,41 @@
 package com.microservice.product_service.controller;
 
+import com.microservice.product_service.cache.ProductVersionTable.ProductVersion;
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.ProductBestseller;
+import com.microservice.product_service.model.ProductCacheStats;
+import com.microservice.product_service.model.ProductDelta;
+import com.microservice.product_service.model.ProductFacets;
+import com.microservice.product_service.model.ProductImportResult;
 import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockPrice;
+import com.microservice.product_service.model.ProductSuggestion;
+import com.microservice.product_service.model.RelatedProduct;
+import com.microservice.product_service.service.ProductImportService;
+import com.microservice.product_service.service.ProductSearchService;
 import com.microservice.product_service.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/products")
@@ -16,22 +44,179 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "Add a new product (Admin only)") 
     @PostMapping
     public ResponseEntity<ProductModel> addProduct(@RequestBody ProductModel product) {
         return ResponseEntity.ok(productService.addProduct(product));
     }
 
-    @Operation(summary = "Get all products (Open to all)")
+    @Operation(summary = "Bulk import products from a JSON array (Admin only)")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResult> importJson(HttpServletRequest request) throws IOException {
+        //read straight from the request so the file is never held in memory
+        return ResponseEntity.ok(productImportService.importJson(request.getInputStream()));
+    }
+
+    @Operation(summary = "Bulk import products from CSV with a name,description,category,price,quantity header (Admin only)")
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<ProductImportResult> importCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(request.getInputStream()));
+    }
+
+    @Operation(summary = "Get all products, optionally by page or after a cursor id (Open to all)")
     @GetMapping
-    public ResponseEntity<List<ProductModel>> getAllProducts() {
+    public ResponseEntity<List<ProductModel>> getAllProducts(@RequestParam(value = "page", required = false) Integer page,
+                                                             @RequestParam(value = "after", required = false) Long after,
+                                                             @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (after != null) {
+            return ResponseEntity.ok(productService.getProductsAfter(after, size));
+        }
+        if (page != null) {
+            return ResponseEntity.ok(productService.getAllProducts(page, size));
+        }
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @Operation(summary = "Stream all products as one JSON array (Open to all)")
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        ObjectWriter writer = objectMapper.writerFor(ProductModel.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                productService.streamAllProducts(product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Export the catalog as newline-delimited JSON, optionally only products changed since a time (Admin only)")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ObjectWriter writer = objectMapper.writerFor(ProductModel.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            //one product per line, nothing is buffered beyond the generator and gzip windows
+            try (OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+                generator.setRootValueSeparator(null);
+                productService.exportProducts(since, product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Operation(summary = "Subscribe to product changes as server-sent events, optionally resuming after an event id (Admin only)")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToChanges(@RequestParam(value = "since", required = false) String since,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        //browsers resend the last event id on reconnect, an explicit since wins
+        return productService.subscribeToChanges(since != null ? since : lastEventId);
+    }
+
+    @Operation(summary = "Products changed or deleted after a change sequence, for delta sync (Open to all)")
+    @GetMapping("/delta")
+    public ResponseEntity<ProductDelta> getDelta(@RequestParam(value = "since", defaultValue = "0") long since,
+                                                 @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productService.getDelta(since, limit));
+    }
+
+    @Operation(summary = "Get hit/miss/eviction counters of the product cache (Admin only)")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ProductCacheStats> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
     @Operation(summary = "Get product by ID (Open to all)")
     @GetMapping("/{id}")
-    public ResponseEntity<ProductModel> getProductById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductModel> getProductById(@PathVariable("id") Long id, WebRequest request) {
+        //answer If-None-Match / If-Modified-Since from the version table without loading the product
+        ProductVersion known = productService.getKnownVersion(id);
+        if (known != null && request.checkNotModified(known.getEtag(), known.getLastModified())) {
+            return null;
+        }
+        ProductModel product = productService.getProductByIdWithVersion(id);
+        ProductVersion current = ProductVersion.of(product);
+        return ResponseEntity.ok()
+                .eTag(current.getEtag())
+                .lastModified(current.getLastModified())
+                .body(product);
+    }
+
+    @Operation(summary = "Get price and stock of a product") //For internal use by feign client
+    @GetMapping("/{id}/stock-price")
+    public ResponseEntity<ProductStockPrice> getStockPrice(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(productService.getStockPrice(id));
+    }
+
+    @Operation(summary = "Reserve stock of a product") //For internal use by feign client
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<ProductStockPrice> reserveStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity) {
+        return ResponseEntity.ok(productService.reserveStock(id, quantity));
+    }
+
+    @Operation(summary = "Release reserved stock of a product") //For internal use by feign client
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ProductStockPrice> releaseStock(@PathVariable("id") Long id, @RequestParam("quantity") Integer quantity) {
+        return ResponseEntity.ok(productService.releaseStock(id, quantity));
+    }
+
+    @Operation(summary = "Products frequently bought together with a product (Open to all)")
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedProduct>> getRelatedProducts(@PathVariable("id") Long id,
+                                                                   @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.getRelatedProducts(id, limit));
+    }
+
+    @Operation(summary = "Count the products of a placed order as bought together") //For internal use by feign client
+    @PostMapping("/related/orders")
+    public ResponseEntity<Void> recordOrder(@RequestBody OrderBasket order) {
+        productService.recordOrder(order);
+        return ResponseEntity.ok().build();
+    }
+
+    @Operation(summary = "Split the stock of a product over stripes for flash sales (Admin only)")
+    @PostMapping("/{id}/hot")
+    public ResponseEntity<ProductStockPrice> enableHotStock(@PathVariable("id") Long id,
+                                                            @RequestParam(value = "stripes", defaultValue = "8") int stripes) {
+        return ResponseEntity.ok(productService.enableHotStock(id, stripes));
+    }
+
+    @Operation(summary = "Move the stock of a hot product back into one row (Admin only)")
+    @DeleteMapping("/{id}/hot")
+    public ResponseEntity<ProductStockPrice> disableHotStock(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(productService.disableHotStock(id));
     }
 
     @Operation(summary = "Update a product by ID (Admin only)")
@@ -48,15 +233,31 @@ public class ProductController {
     }
 
 
-    @Operation(summary = "Filter products by price range (Open to all)") 
+    @Operation(summary = "Filter products by price range, optionally one page at a time (Open to all)") 
     @GetMapping("/filter/price")
-    public ResponseEntity<List<ProductModel>> getByPriceRange(@RequestParam("min") Double min, @RequestParam("max") Double max) {
-        return ResponseEntity.ok(productService.getProductsByPriceRange(min, max));
+    public ResponseEntity<List<ProductModel>> getByPriceRange(@RequestParam("min") Double min, @RequestParam("max") Double max,
+                                                              @RequestParam(value = "page", required = false) Integer page,
+                                                              @RequestParam(value = "size", required = false) Integer size) {
+        if (page == null && size == null) {
+            return ResponseEntity.ok(productService.getProductsByPriceRange(min, max));
+        }
+        return ResponseEntity.ok(productService.getProductsByPriceRange(min, max, page != null ? page : 0, size != null ? size : 20));
+    }
+
+    @Operation(summary = "Count products in a price range (Open to all)")
+    @GetMapping("/filter/price/count")
+    public ResponseEntity<Long> countByPriceRange(@RequestParam("min") Double min, @RequestParam("max") Double max) {
+        return ResponseEntity.ok(productService.countProductsByPriceRange(min, max));
     }
 
-    @Operation(summary = "Filter products by name (Open to all)")
+    @Operation(summary = "Filter products by name, optionally tolerating typos (Open to all)")
     @GetMapping("/filter/name")
-    public ResponseEntity<List<ProductModel>> getByName(@RequestParam("name") String name) {
+    public ResponseEntity<List<ProductModel>> getByName(@RequestParam("name") String name,
+                                                        @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                        @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (fuzzy) {
+            return ResponseEntity.ok(productService.getProductsByNameFuzzy(name, limit));
+        }
         return ResponseEntity.ok(productService.getProductsByName(name));
     }
 
@@ -65,4 +266,38 @@ public class ProductController {
     public ResponseEntity<List<ProductModel>> getByCategory(@RequestParam("category") String category) {
         return ResponseEntity.ok(productService.getProductsByCategory(category));
     }
+
+    @Operation(summary = "Suggest product names starting with a prefix, most popular first (Open to all)")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(@RequestParam("prefix") String prefix,
+                                                           @RequestParam(value = "k", defaultValue = "10") int k) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, k));
+    }
+
+    @Operation(summary = "Top selling products of a category, or overall (Open to all)")
+    @GetMapping("/bestsellers")
+    public ResponseEntity<List<ProductBestseller>> getBestsellers(@RequestParam(value = "category", required = false) String category,
+                                                                  @RequestParam(value = "k", defaultValue = "10") int k) {
+        return ResponseEntity.ok(productService.getBestsellers(category, k));
+    }
+
+    @Operation(summary = "Product counts per category and price bucket (Open to all)")
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> getFacets(@RequestParam(value = "category", required = false) String category,
+                                                   @RequestParam(value = "priceBucket", required = false) String priceBucket) {
+        return ResponseEntity.ok(productService.getFacets(category, priceBucket));
+    }
+
+    @Operation(summary = "Search products by any combination of name, category, price and stock (Open to all)")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductModel>> search(@RequestParam(value = "name", required = false) String name,
+                                                     @RequestParam(value = "category", required = false) String category,
+                                                     @RequestParam(value = "minPrice", required = false) Double minPrice,
+                                                     @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+                                                     @RequestParam(value = "inStock", defaultValue = "false") boolean inStock,
+                                                     @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                     @RequestParam(value = "page", defaultValue = "0") int page,
+                                                     @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(productSearchService.search(name, category, minPrice, maxPrice, inStock, sort, page, size));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.microservice.product_service.controller;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ReactiveProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Non-blocking twins of the GET endpoints of ProductController. The request thread is released
+//while the query runs; with Accept: application/x-ndjson lists are streamed one product per
+//line as rows arrive, otherwise they are collected into one JSON array.
+@RestController
+@RequestMapping("/products/reactive")
+@ConditionalOnProperty(name = "product.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @Operation(summary = "Get all products without blocking a thread (Open to all)")
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductModel> getAllProducts() {
+        return reactiveProductService.getAllProducts();
+    }
+
+    @Operation(summary = "Get product by ID without blocking a thread (Open to all)")
+    @GetMapping("/{id}")
+    public Mono<ProductModel> getProductById(@PathVariable("id") Long id) {
+        return reactiveProductService.getProductById(id);
+    }
+
+    @Operation(summary = "Filter products by price range without blocking a thread (Open to all)")
+    @GetMapping(value = "/filter/price", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductModel> getByPriceRange(@RequestParam("min") Double min, @RequestParam("max") Double max) {
+        return reactiveProductService.getProductsByPriceRange(min, max);
+    }
+
+    @Operation(summary = "Filter products by name without blocking a thread (Open to all)")
+    @GetMapping(value = "/filter/name", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductModel> getByName(@RequestParam("name") String name) {
+        return reactiveProductService.getProductsByName(name);
+    }
+
+    @Operation(summary = "Filter products by category without blocking a thread (Open to all)")
+    @GetMapping(value = "/filter/category", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductModel> getByCategory(@RequestParam("category") String category) {
+        return reactiveProductService.getProductsByCategory(category);
+    }
+}
@@ -0,0 +1,196 @@
+package com.microservice.product_service.feed;
+
+import com.microservice.product_service.model.ProductChange;
+import com.microservice.product_service.model.ProductChangeType;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Every product write and stock reservation goes into a fixed size ring buffer with a
+//sequence number. Subscribers get the changes as server-sent events from one dispatcher
+//thread, so a slow consumer never holds up a write. Event ids are "epoch:sequence", the
+//epoch changes on every start because the sequence does too. A consumer that reconnects
+//with the last event id it saw resumes from there, or gets a "reset" event when that id
+//has already been overwritten or belongs to an earlier run, and must resync in full.
+//The reset carries the current event id to resume from after the resync.
+@Component
+public class ProductChangeFeed implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private static final int SEND_BATCH = 256;
+
+    private final ProductChange[] ring;
+    private final long emitterTimeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "product-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long head;  // sequence of the newest change, 0 before the first one
+
+    public ProductChangeFeed(@Value("${product.changes.buffer-size:10000}") int bufferSize,
+                             @Value("${product.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.ring = new ProductChange[bufferSize];
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        //comments keep idle connections open through proxies
+        dispatcher.scheduleAtFixedRate(this::heartbeat, 15, 15, TimeUnit.SECONDS);
+    }
+
+    public synchronized long latestSequence() {
+        return head;
+    }
+
+    //up to max changes after the sequence, null when they are no longer in the buffer
+    public synchronized List<ProductChange> since(long sequence, int max) {
+        if (sequence > head || sequence < head - ring.length) {
+            return null;
+        }
+        long last = Math.min(head, sequence + max);
+        List<ProductChange> changes = new ArrayList<>((int) (last - sequence));
+        for (long s = sequence + 1; s <= last; s++) {
+            changes.add(ring[(int) (s % ring.length)]);
+        }
+        return changes;
+    }
+
+    //event id of a sequence in this run
+    public String eventId(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    //sequence of an event id from this run, null for ids of an earlier run or not from this feed
+    public Long resumeSequence(String eventId) {
+        int colon = eventId.indexOf(':');
+        if (colon < 0 || !eventId.substring(0, colon).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    //new SSE subscriber, starting after the given event id or at the newest change
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Long since = lastEventId != null ? resumeSequence(lastEventId) : Long.valueOf(latestSequence());
+        //a sequence that is never buffered, the first drain sends the reset
+        Subscriber subscriber = new Subscriber(emitter, since != null ? since : Long.MIN_VALUE);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        scheduleDrain();
+        return emitter;
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        //the version is still 0 right after the insert
+        ProductChangeType type = product.getVersion() == null || product.getVersion() == 0
+                ? ProductChangeType.CREATED : ProductChangeType.UPDATED;
+        append(type, product.getId(), product, null);
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        append(ProductChangeType.DELETED, id, null, null);
+    }
+
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        append(ProductChangeType.STOCK_RESERVED, id, null, quantity);
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void append(ProductChangeType type, Long id, ProductModel product, Integer quantity) {
+        synchronized (this) {
+            head++;
+            ring[(int) (head % ring.length)] = new ProductChange(head, type, id, product, quantity, Instant.now());
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    //sends every subscriber the changes it has not seen yet
+    private void drain() {
+        drainScheduled.set(false);
+        for (Subscriber subscriber : subscribers) {
+            try {
+                List<ProductChange> batch;
+                while ((batch = since(subscriber.lastSent, SEND_BATCH)) != null && !batch.isEmpty()) {
+                    for (ProductChange change : batch) {
+                        subscriber.emitter.send(SseEmitter.event()
+                                .id(eventId(change.getSequence()))
+                                .name(change.getType().name())
+                                .data(change, MediaType.APPLICATION_JSON));
+                        subscriber.lastSent = change.getSequence();
+                    }
+                }
+                if (batch == null) {
+                    logger.info("Change feed subscriber cannot resume after sequence {}, sending reset", subscriber.lastSent);
+                    subscriber.emitter.send(SseEmitter.event().name("reset").data(eventId(latestSequence())));
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                //client went away, the container completes the emitter
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+    }
+}
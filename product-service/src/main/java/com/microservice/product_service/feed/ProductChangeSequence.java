@@ -0,0 +1,94 @@
+package com.microservice.product_service.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+//Source of the change sequence written to products and tombstones. Values are strictly
+//increasing and follow wall-clock microseconds, so they keep growing across restarts and
+//stay roughly ordered between instances. Rows from before the column existed are
+//backfilled with their id, which is always far below any clock based value.
+//A value is handed out before its write commits, so writes can become visible out of
+//order. Every value stays in flight until its write completed and the delta sync only
+//reads up to the watermark below the oldest one, a reader never moves past a change
+//that is still to come.
+@Component
+public class ProductChangeSequence {
+
+    //writes of other instances are not seen here, with several writers set this above the
+    //longest write transaction plus the clock skew between them
+    @Value("${product.delta.settle-ms:0}")
+    private long settleMillis;
+
+    private long last;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    //next value for a write in the current transaction, in flight until the transaction completes
+    public long next() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return allocate(false);
+        }
+        long seq = allocate(true);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(seq);
+            }
+        });
+        return seq;
+    }
+
+    //single statement write outside a transaction, the value is in flight until it returned
+    public <T> T write(LongFunction<T> write) {
+        long seq = allocate(true);
+        try {
+            return write.apply(seq);
+        } finally {
+            release(seq);
+        }
+    }
+
+    //same for a batch statement writing count rows, one value per row
+    public <T> T writeAll(int count, Function<long[], T> write) {
+        long[] seqs = new long[count];
+        for (int i = 0; i < count; i++) {
+            seqs[i] = allocate(true);
+        }
+        try {
+            return write.apply(seqs);
+        } finally {
+            for (long seq : seqs) {
+                release(seq);
+            }
+        }
+    }
+
+    //highest value at or below which every write of this instance has completed
+    public synchronized long watermark() {
+        long now = System.currentTimeMillis() * 1000;
+        long completed = inFlight.isEmpty() ? Math.max(last, now) : inFlight.first() - 1;
+        return settleMillis > 0 ? Math.min(completed, now - settleMillis * 1000) : completed;
+    }
+
+    //never hand out a value at or below one already stored, e.g. after the clock went back
+    public synchronized void seed(long stored) {
+        last = Math.max(last, stored);
+    }
+
+    private synchronized long allocate(boolean track) {
+        last = Math.max(last + 1, System.currentTimeMillis() * 1000);
+        if (track) {
+            inFlight.add(last);
+        }
+        return last;
+    }
+
+    private synchronized void release(long seq) {
+        inFlight.remove(seq);
+    }
+}
@@ -0,0 +1,216 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.ProductBestseller;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Exact per-product sales counters with exponential decay, fed by stock reservations.
+//Decay is applied forward: a sale at time t adds quantity * 2^((t - base) / halfLife), so
+//old scores never need rewriting and the order between products stays valid. Each category
+//keeps its products in a tree ordered by score, which makes a top K read walk K nodes.
+@Component
+public class ProductBestsellerIndex implements ProductChangeListener {
+
+    //rebase the weights before 2^exponent gets anywhere near overflowing a double
+    private static final double MAX_EXPONENT = 512;
+
+    private static final Comparator<Counter> BY_SCORE = Comparator
+            .comparingDouble((Counter c) -> c.weight).reversed()
+            .thenComparingLong(c -> c.productId);
+
+    private final double halfLifeMillis;
+    private final Clock clock;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final Map<Long, ProductModel> products = new HashMap<>();  // productId -> name and category
+    private final Map<String, TreeSet<Counter>> byCategory = new HashMap<>();
+    private final TreeSet<Counter> overall = new TreeSet<>(BY_SCORE);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long baseMillis;
+
+    @Autowired
+    public ProductBestsellerIndex(@Value("${product.bestsellers.half-life-hours:24}") double halfLifeHours) {
+        this(halfLifeHours, Clock.systemUTC());
+    }
+
+    public ProductBestsellerIndex(double halfLifeHours, Clock clock) {
+        this.halfLifeMillis = halfLifeHours * 3_600_000;
+        this.clock = clock;
+        this.baseMillis = clock.millis();
+    }
+
+    //top k products of a category, or of the whole catalog when category is null
+    public List<ProductBestseller> top(String category, int k) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Counter> ranked = category == null ? overall : byCategory.get(category);
+            List<ProductBestseller> result = new ArrayList<>(k);
+            if (ranked == null) {
+                return result;
+            }
+            //weights are relative to the base, scale back to decayed units as of now
+            double scale = Math.pow(2, -(clock.millis() - baseMillis) / halfLifeMillis);
+            Iterator<Counter> it = ranked.iterator();
+            while (it.hasNext() && result.size() < k) {
+                Counter counter = it.next();
+                ProductModel product = products.get(counter.productId);
+                result.add(new ProductBestseller(counter.productId, product.getName(), product.getCategory(),
+                        counter.weight * scale));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //relative popularity of one product, only meant for comparing products with each other
+    public double score(long productId) {
+        lock.readLock().lock();
+        try {
+            Counter counter = counters.get(productId);
+            return counter == null ? 0 : counter.weight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> loaded) {
+        lock.writeLock().lock();
+        try {
+            //sales are kept, only names and categories come from the database
+            Map<Long, Counter> previous = new HashMap<>(counters);
+            clear();
+            products.clear();
+            for (ProductModel product : loaded) {
+                products.put(product.getId(), summary(product));
+                Counter counter = previous.get(product.getId());
+                if (counter != null) {
+                    link(counter);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            Counter counter = unlink(product.getId());
+            products.put(product.getId(), summary(product));
+            if (counter != null) {
+                link(counter);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            products.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        lock.writeLock().lock();
+        try {
+            if (!products.containsKey(id)) {
+                return;
+            }
+            long now = clock.millis();
+            if ((now - baseMillis) / halfLifeMillis > MAX_EXPONENT) {
+                rebase(now);
+            }
+            Counter counter = unlink(id);
+            if (counter == null) {
+                counter = new Counter(id);
+            }
+            counter.weight += quantity * Math.pow(2, (now - baseMillis) / halfLifeMillis);
+            link(counter);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //moves the base to now, every weight shrinks by the same factor so the order is kept
+    private void rebase(long now) {
+        double factor = Math.pow(2, -(now - baseMillis) / halfLifeMillis);
+        List<Counter> all = new ArrayList<>(counters.values());
+        clear();
+        for (Counter counter : all) {
+            counter.weight *= factor;
+            link(counter);
+        }
+        baseMillis = now;
+    }
+
+    private void link(Counter counter) {
+        counters.put(counter.productId, counter);
+        overall.add(counter);
+        byCategory.computeIfAbsent(categoryOf(counter.productId), c -> new TreeSet<>(BY_SCORE)).add(counter);
+    }
+
+    //removes a counter from the trees before its weight or category changes
+    private Counter unlink(Long id) {
+        Counter counter = counters.remove(id);
+        if (counter == null) {
+            return null;
+        }
+        overall.remove(counter);
+        String category = categoryOf(id);
+        TreeSet<Counter> ranked = byCategory.get(category);
+        if (ranked != null) {
+            ranked.remove(counter);
+            if (ranked.isEmpty()) {
+                byCategory.remove(category);
+            }
+        }
+        return counter;
+    }
+
+    private void clear() {
+        counters.clear();
+        overall.clear();
+        byCategory.clear();
+    }
+
+    private String categoryOf(Long id) {
+        ProductModel product = products.get(id);
+        return product == null || product.getCategory() == null ? "" : product.getCategory();
+    }
+
+    //only id, name and category are kept, not the whole entity
+    private static ProductModel summary(ProductModel product) {
+        return new ProductModel(product.getId(), product.getName(), null, product.getCategory(), null, null);
+    }
+
+    private static final class Counter {
+        private final long productId;
+        private double weight;
+
+        private Counter(long productId) {
+            this.productId = productId;
+        }
+    }
+}
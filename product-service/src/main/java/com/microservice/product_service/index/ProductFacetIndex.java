@@ -0,0 +1,249 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.model.ProductFacets;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+//One bitmap of product ids per category and per price bucket. A facet count under a
+//filter is the cardinality of the intersection of two bitmaps, so no rows are read.
+//Product ids are dense IDENTITY values, which keeps java.util.BitSet compact here.
+@Component
+public class ProductFacetIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private final double[] bucketBounds;
+    private final String[] bucketLabels;
+    private final BitSet[] byBucket;
+    private final Map<String, BitSet> byCategory = new TreeMap<>();
+    private final BitSet all = new BitSet();
+    private final Map<Long, String> categoryById = new HashMap<>();
+    private final Map<Long, Integer> bucketById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public ProductFacetIndex(@Value("${product.facets.price-buckets:0,50,100,500,1000}") double[] bucketBounds) {
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+        this.bucketLabels = new String[this.bucketBounds.length];
+        this.byBucket = new BitSet[this.bucketBounds.length];
+        for (int i = 0; i < this.bucketBounds.length; i++) {
+            bucketLabels[i] = i + 1 < this.bucketBounds.length
+                    ? format(this.bucketBounds[i]) + "-" + format(this.bucketBounds[i + 1])
+                    : format(this.bucketBounds[i]) + "+";
+            byBucket[i] = new BitSet();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //ids of a category as a bitmap copy, empty when the category is unknown
+    public BitSet category(String category) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = byCategory.get(category);
+            return bits == null ? new BitSet() : (BitSet) bits.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //category counts are filtered by the price bucket, bucket counts by the category
+    public ProductFacets facets(String category, String priceBucket) {
+        lock.readLock().lock();
+        try {
+            BitSet categoryFilter = all;
+            if (category != null) {
+                categoryFilter = byCategory.getOrDefault(category, new BitSet());
+            }
+            BitSet bucketFilter = all;
+            if (priceBucket != null) {
+                bucketFilter = byBucket[bucketIndex(priceBucket)];
+            }
+
+            Map<String, Long> categories = new LinkedHashMap<>();
+            for (Map.Entry<String, BitSet> entry : byCategory.entrySet()) {
+                categories.put(entry.getKey(), andCardinality(entry.getValue(), bucketFilter));
+            }
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < byBucket.length; i++) {
+                buckets.put(bucketLabels[i], andCardinality(byBucket[i], categoryFilter));
+            }
+            return new ProductFacets(andCardinality(categoryFilter, bucketFilter), categories, buckets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //the same facets from grouped (category, count) rows of the database, for requests before the
+    //index is loaded. countInRange counts the products with a price in [min, max), null bounds are open
+    public ProductFacets facets(String category, String priceBucket, List<Object[]> countAll,
+                                BiFunction<Double, Double, List<Object[]>> countInRange) {
+        int bucket = bucketIndex(priceBucket);
+        Map<String, Long> all = counts(countAll);
+        List<Map<String, Long>> perBucket = new ArrayList<>(bucketBounds.length);
+        for (int i = 0; i < bucketBounds.length; i++) {
+            Double min = i > 0 ? bucketBounds[i] : null;
+            Double max = i + 1 < bucketBounds.length ? bucketBounds[i + 1] : null;
+            perBucket.add(counts(countInRange.apply(min, max)));
+        }
+        Map<String, Long> filtered = bucket < 0 ? all : perBucket.get(bucket);
+
+        Map<String, Long> categories = new TreeMap<>();
+        for (String name : all.keySet()) {
+            if (name != null) {
+                categories.put(name, filtered.getOrDefault(name, 0L));
+            }
+        }
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < bucketBounds.length; i++) {
+            buckets.put(bucketLabels[i], category != null ? perBucket.get(i).getOrDefault(category, 0L) : sum(perBucket.get(i)));
+        }
+        long total = category != null ? filtered.getOrDefault(category, 0L) : sum(filtered);
+        return new ProductFacets(total, new LinkedHashMap<>(categories), buckets);
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byCategory.clear();
+            categoryById.clear();
+            bucketById.clear();
+            for (BitSet bits : byBucket) {
+                bits.clear();
+            }
+            for (ProductModel product : products) {
+                add(product);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Facet index loaded with {} products in {} categories", all.cardinality(), byCategory.size());
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(ProductModel product) {
+        Long id = product.getId();
+        if (id == null || id > Integer.MAX_VALUE) {
+            return;
+        }
+        int bit = id.intValue();
+        all.set(bit);
+        if (product.getCategory() != null) {
+            byCategory.computeIfAbsent(product.getCategory(), c -> new BitSet()).set(bit);
+            categoryById.put(id, product.getCategory());
+        }
+        if (product.getPrice() != null) {
+            int bucket = bucketOf(product.getPrice());
+            byBucket[bucket].set(bit);
+            bucketById.put(id, bucket);
+        }
+    }
+
+    private void remove(Long id) {
+        if (id == null || id > Integer.MAX_VALUE) {
+            return;
+        }
+        int bit = id.intValue();
+        all.clear(bit);
+        String category = categoryById.remove(id);
+        if (category != null) {
+            BitSet bits = byCategory.get(category);
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                byCategory.remove(category);
+            }
+        }
+        Integer bucket = bucketById.remove(id);
+        if (bucket != null) {
+            byBucket[bucket].clear(bit);
+        }
+    }
+
+    //position of a bucket label, -1 without a bucket filter
+    private int bucketIndex(String priceBucket) {
+        if (priceBucket == null) {
+            return -1;
+        }
+        int bucket = Arrays.asList(bucketLabels).indexOf(priceBucket);
+        if (bucket < 0) {
+            throw new ProductException("Unknown price bucket: " + priceBucket + ", expected one of " + Arrays.toString(bucketLabels));
+        }
+        return bucket;
+    }
+
+    //category -> count, products without a category under the null key
+    private static Map<String, Long> counts(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static long sum(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    //prices below the first bound fall into the first bucket
+    private int bucketOf(double price) {
+        int pos = Arrays.binarySearch(bucketBounds, price);
+        int bucket = pos >= 0 ? pos : -pos - 2;
+        return Math.max(0, bucket);
+    }
+
+    private static long andCardinality(BitSet a, BitSet b) {
+        if (a == b) {
+            return a.cardinality();
+        }
+        BitSet smaller = a.length() <= b.length() ? a : b;
+        BitSet other = smaller == a ? b : a;
+        BitSet result = (BitSet) smaller.clone();
+        result.and(other);
+        return result.cardinality();
+    }
+
+    private static String format(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+}
@@ -0,0 +1,259 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Typo tolerant word lookup for product names. Every distinct word of every name goes into a
+//BK-tree keyed by Levenshtein distance, so finding the words within distance 1-2 of a query
+//word only visits the branches the triangle inequality allows, not the whole vocabulary.
+//The vocabulary grows much slower than the catalog, which keeps lookups flat. A BK-tree cannot
+//drop a node, so words no product uses any more stay in it until they make up MAX_DEAD_FRACTION
+//of the tree, then the tree is rebuilt from the live words.
+@Component
+public class ProductFuzzyIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFuzzyIndex.class);
+    private static final double MAX_DEAD_FRACTION = 0.25;
+
+    private Node root;
+    private int treeWords;  // nodes in the tree, dead words included
+    private final Map<String, SortedLongList> postings = new HashMap<>();  // word -> product ids
+    private final Map<Long, String[]> wordsById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //words held in the tree, including the dead ones not yet rebuilt away
+    public int treeSize() {
+        lock.readLock().lock();
+        try {
+            return treeWords;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //productId -> summed edit distance, for products that have a close word for every query word
+    public Map<Long, Integer> search(String text) {
+        String[] queryWords = words(text);
+        Map<Long, Integer> result = new HashMap<>();
+        if (queryWords.length == 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            for (int w = 0; w < queryWords.length; w++) {
+                Map<Long, Integer> best = new HashMap<>();
+                for (Map.Entry<String, Integer> match : lookup(queryWords[w], maxDistance(queryWords[w])).entrySet()) {
+                    SortedLongList ids = postings.get(match.getKey());
+                    for (int i = 0; i < ids.size(); i++) {
+                        best.merge(ids.get(i), match.getValue(), Math::min);
+                    }
+                }
+                if (w == 0) {
+                    result.putAll(best);
+                } else {
+                    //every query word has to match something in the name
+                    result.keySet().retainAll(best.keySet());
+                    result.replaceAll((id, distance) -> distance + best.get(id));
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        lock.writeLock().lock();
+        try {
+            root = null;
+            treeWords = 0;
+            postings.clear();
+            wordsById.clear();
+            for (ProductModel product : products) {
+                add(product);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Fuzzy index loaded with {} products and {} words", wordsById.size(), postings.size());
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(ProductModel product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        String[] productWords = words(product.getName());
+        wordsById.put(product.getId(), productWords);
+        for (String word : productWords) {
+            SortedLongList ids = postings.get(word);
+            if (ids == null) {
+                ids = new SortedLongList();
+                postings.put(word, ids);
+                insert(word);
+            }
+            ids.add(product.getId());
+        }
+    }
+
+    //a word without products leaves the postings at once and the tree at the next rebuild
+    private void remove(Long id) {
+        String[] productWords = wordsById.remove(id);
+        if (productWords == null) {
+            return;
+        }
+        for (String word : productWords) {
+            SortedLongList ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.size() == 0) {
+                    postings.remove(word);
+                }
+            }
+        }
+        if (treeWords - postings.size() > treeWords * MAX_DEAD_FRACTION) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        root = null;
+        treeWords = 0;
+        for (String word : postings.keySet()) {
+            insert(word);
+        }
+    }
+
+    private void insert(String word) {
+        if (root == null) {
+            root = new Node(word);
+            treeWords++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                treeWords++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    //indexed words within maxDistance of the word that still belong to a product
+    private Map<String, Integer> lookup(String word, int maxDistance) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (root == null) {
+            return matches;
+        }
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(word, node.word);
+            if (distance <= maxDistance) {
+                //dead words stay in the tree until the next rebuild
+                if (postings.containsKey(node.word)) {
+                    matches.put(node.word, distance);
+                }
+            }
+            //only children whose edge is within maxDistance of this distance can hold matches
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    pending.add(child);
+                }
+            }
+        }
+        return matches;
+    }
+
+    //short words have to match exactly, longer ones may have one or two typos
+    static int maxDistance(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String cleaned = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split(" ");
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
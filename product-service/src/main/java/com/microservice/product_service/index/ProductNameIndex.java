@@ -0,0 +1,200 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Trigram inverted index over product names for substring search. Every lower-cased name
+//is split into overlapping 3 character grams, each gram keeps a sorted list of product ids.
+//A query intersects the lists of its own grams, smallest first, and checks the few
+//candidates left against the real name to drop false positives.
+@Component
+public class ProductNameIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameIndex.class);
+
+    private final Map<Long, SortedLongList> postings = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();  // productId -> normalized name
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //ids of products whose name contains the text, ignoring case, in id order
+    public long[] search(String text) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                return scan(query);
+            }
+            long[] grams = trigrams(query);
+            SortedLongList[] lists = new SortedLongList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+            SortedLongList smallest = lists[0];
+            long[] result = new long[smallest.size()];
+            int count = 0;
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                boolean inAll = true;
+                for (int j = 1; j < lists.length && inAll; j++) {
+                    inAll = lists[j].contains(id);
+                }
+                //grams can match out of order, so confirm the substring itself
+                if (inAll && names.get(id).contains(query)) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //upper bound of the hits for a query: the shortest posting list of its trigrams
+    public int estimate(String text) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                return names.size();
+            }
+            int estimate = names.size();
+            for (long gram : trigrams(query)) {
+                SortedLongList list = postings.get(gram);
+                estimate = Math.min(estimate, list == null ? 0 : list.size());
+            }
+            return estimate;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //whether the name of one product contains the text, ignoring case
+    public boolean matches(long id, String text) {
+        lock.readLock().lock();
+        try {
+            String name = names.get(id);
+            return name != null && name.contains(normalize(text));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //normalized name of a product, null when unknown
+    public String name(long id) {
+        lock.readLock().lock();
+        try {
+            return names.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+            for (ProductModel product : products) {
+                add(product);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Name index loaded with {} products and {} trigrams", names.size(), postings.size());
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(ProductModel product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        String name = normalize(product.getName());
+        names.put(product.getId(), name);
+        for (long gram : trigrams(name)) {
+            postings.computeIfAbsent(gram, g -> new SortedLongList()).add(product.getId());
+        }
+    }
+
+    private void remove(Long id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (long gram : trigrams(name)) {
+            SortedLongList list = postings.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size() == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    //queries shorter than a trigram are answered from the in-memory names
+    private long[] scan(String query) {
+        long[] result = names.entrySet().stream()
+                .filter(e -> e.getValue().contains(query))
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    //distinct trigrams, each packed as three 16 bit chars
+    private static long[] trigrams(String s) {
+        if (s.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,192 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Products sorted by (price, id) in two parallel primitive arrays. A price range is two
+//binary searches, so counting or paging a range never touches the rows outside it.
+@Component
+public class ProductPriceIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    private double[] prices = new double[16];
+    private long[] ids = new long[16];
+    private int size;
+    private final Map<Long, Double> priceById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //price of a product, null when it has none
+    public Double price(long id) {
+        lock.readLock().lock();
+        try {
+            return priceById.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //number of products with min <= price <= max
+    public int count(double min, double max) {
+        lock.readLock().lock();
+        try {
+            return Math.max(0, upperBound(max) - lowerBound(min));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //ids of products with min <= price <= max in price order, skipping offset and returning at most limit
+    public long[] range(double min, double max, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(min);
+            int to = upperBound(max);
+            int start = (int) Math.min((long) from + offset, to);
+            int end = (int) Math.min((long) start + limit, to);
+            return end > start ? Arrays.copyOfRange(ids, start, end) : new long[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        lock.writeLock().lock();
+        try {
+            priceById.clear();
+            for (ProductModel product : products) {
+                if (product.getId() != null && product.getPrice() != null) {
+                    priceById.put(product.getId(), product.getPrice());
+                }
+            }
+            //sort once instead of inserting one by one
+            Long[] order = priceById.keySet().toArray(new Long[0]);
+            Arrays.sort(order, (a, b) -> compare(priceById.get(a), a, priceById.get(b), b));
+            size = order.length;
+            prices = new double[Math.max(16, size + size / 4)];
+            ids = new long[prices.length];
+            for (int i = 0; i < size; i++) {
+                ids[i] = order[i];
+                prices[i] = priceById.get(order[i]);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Price index loaded with {} products", size);
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            if (product.getPrice() != null) {
+                insert(product.getPrice(), product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(double price, long id) {
+        int pos = position(price, id);
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(prices, pos, prices, pos + 1, size - pos);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        prices[pos] = price;
+        ids[pos] = id;
+        size++;
+        priceById.put(id, price);
+    }
+
+    private void remove(Long id) {
+        Double price = priceById.remove(id);
+        if (price == null) {
+            return;
+        }
+        int pos = position(price, id);
+        if (pos < size && ids[pos] == id) {
+            System.arraycopy(prices, pos + 1, prices, pos, size - pos - 1);
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    //first index whose (price, id) is not less than the given pair
+    private int position(double price, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(prices[mid], ids[mid], price, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    //first index with price >= min
+    private int lowerBound(double min) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < min) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    //first index with price > max
+    private int upperBound(double max) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= max) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(double priceA, long idA, double priceB, long idB) {
+        int byPrice = Double.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Long.compare(idA, idB);
+    }
+}
@@ -0,0 +1,240 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.RelatedProduct;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//"Frequently bought together": for every product the number of orders it shared with each
+//other product, kept in sparse primitive maps. The top K neighbours of a product are
+//computed on the first read after its counts changed and then served from a cache.
+@Component
+public class ProductRelatedIndex implements ProductChangeListener {
+
+    //baskets counted by one fork/join leaf during the bootstrap
+    private static final int BOOTSTRAP_CHUNK = 2048;
+
+    private final int topK;
+    private final Map<Long, LongLongMap> counts = new HashMap<>();  // productId -> (otherId -> orders)
+    private final Map<Long, List<RelatedProduct>> top = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //orders up to this id are left to the bootstrap, until it starts the orders counted live are remembered
+    private long bootstrapUpTo;
+    private Set<Long> liveOrders = new HashSet<>();
+
+    @Autowired
+    public ProductRelatedIndex(@Value("${product.related.top-k:20}") int topK) {
+        this.topK = topK;
+    }
+
+    //up to limit products most often bought together with productId
+    public List<RelatedProduct> related(long productId, int limit) {
+        List<RelatedProduct> related = top.get(productId);
+        if (related == null) {
+            lock.readLock().lock();
+            try {
+                //updates take the write lock, so nothing computed here can be stale when stored
+                related = top.computeIfAbsent(productId, this::computeTop);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return related.size() > limit ? related.subList(0, limit) : related;
+    }
+
+    //one new order, each product id counted once
+    public void recordOrder(long[] productIds) {
+        long[] ids = distinct(productIds);
+        if (ids.length < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            countPairs(counts, ids);
+            for (long id : ids) {
+                top.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //a placed order, skipped when the bootstrap counts it from the order history
+    @Override
+    public void orderRecorded(OrderBasket order) {
+        long[] ids = order.getProductIds().stream().mapToLong(Long::longValue).toArray();
+        lock.writeLock().lock();
+        try {
+            if (order.getOrderId() != null) {
+                if (order.getOrderId() <= bootstrapUpTo) {
+                    return;
+                }
+                if (liveOrders != null) {
+                    liveOrders.add(order.getOrderId());
+                }
+            }
+            recordOrder(ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //called before the order history up to lastOrderId is read, from now on those orders are only
+    //counted by the bootstrap. returns the ones already counted live, the bootstrap skips them
+    public Set<Long> beginBootstrap(long lastOrderId) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> counted = liveOrders != null ? liveOrders : new HashSet<>();
+            liveOrders = null;
+            bootstrapUpTo = lastOrderId;
+            return counted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //adds the co-occurrences of the order history, counted in parallel on the common fork/join pool
+    public void bootstrap(List<long[]> baskets) {
+        Map<Long, LongLongMap> history = ForkJoinPool.commonPool().invoke(new CountTask(baskets, 0, baskets.size()));
+        lock.writeLock().lock();
+        try {
+            merge(counts, history);
+            top.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        //counts come from orders, not from the catalog
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            LongLongMap neighbours = counts.remove(id);
+            top.remove(id);
+            if (neighbours != null) {
+                neighbours.forEach((other, orders) -> {
+                    LongLongMap back = counts.get(other);
+                    if (back != null) {
+                        back.remove(id);
+                        if (back.size() == 0) {
+                            counts.remove(other);
+                        }
+                    }
+                    top.remove(other);
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //caller holds the read lock
+    private List<RelatedProduct> computeTop(Long productId) {
+        LongLongMap neighbours = counts.get(productId);
+        if (neighbours == null) {
+            return List.of();
+        }
+        //min heap of the best k so far: fewest orders first, then the higher id
+        PriorityQueue<long[]> best = new PriorityQueue<>(topK + 1, (a, b) -> a[1] != b[1]
+                ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        neighbours.forEach((other, orders) -> {
+            best.add(new long[]{other, orders});
+            if (best.size() > topK) {
+                best.poll();
+            }
+        });
+        RelatedProduct[] result = new RelatedProduct[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            long[] entry = best.poll();
+            result[i] = new RelatedProduct(entry[0], entry[1]);
+        }
+        return List.of(result);
+    }
+
+    private static void countPairs(Map<Long, LongLongMap> counts, long[] ids) {
+        for (int i = 0; i < ids.length; i++) {
+            LongLongMap row = counts.computeIfAbsent(ids[i], id -> new LongLongMap());
+            for (int j = 0; j < ids.length; j++) {
+                if (i != j) {
+                    row.addTo(ids[j], 1);
+                }
+            }
+        }
+    }
+
+    private static void merge(Map<Long, LongLongMap> into, Map<Long, LongLongMap> from) {
+        from.forEach((id, row) -> {
+            LongLongMap existing = into.putIfAbsent(id, row);
+            if (existing != null) {
+                existing.addAll(row);
+            }
+        });
+    }
+
+    private static long[] distinct(long[] ids) {
+        return Arrays.stream(ids).distinct().toArray();
+    }
+
+    //splits the history in halves until a chunk is small enough to count into a private map
+    private static final class CountTask extends RecursiveTask<Map<Long, LongLongMap>> {
+        private final List<long[]> baskets;
+        private final int from;
+        private final int to;
+
+        CountTask(List<long[]> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, LongLongMap> compute() {
+            if (to - from <= BOOTSTRAP_CHUNK) {
+                Map<Long, LongLongMap> counts = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    long[] ids = distinct(baskets.get(i));
+                    if (ids.length > 1) {
+                        countPairs(counts, ids);
+                    }
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(baskets, from, middle);
+            left.fork();
+            Map<Long, LongLongMap> right = new CountTask(baskets, middle, to).compute();
+            Map<Long, LongLongMap> counts = left.join();
+            //merge the smaller map into the larger one
+            if (counts.size() < right.size()) {
+                merge(right, counts);
+                return right;
+            }
+            merge(counts, right);
+            return counts;
+        }
+    }
+}
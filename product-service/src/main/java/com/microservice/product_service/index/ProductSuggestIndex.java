@@ -0,0 +1,263 @@
+package com.microservice.product_service.index;
+
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductSuggestion;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Prefix trie over normalized product names for autocomplete. A name is inserted once from
+//every word start, so "pro" finds "iPhone 15 Pro". Popularity is the number of units
+//reserved since startup; every node keeps the best score below it, so a query walks
+//to the prefix node and pulls the top K best-first without visiting the whole subtree.
+//Keys stop after MAX_KEY_DEPTH characters, which bounds the nodes per product; a longer
+//prefix is checked against the names found below the deepest node.
+@Component
+public class ProductSuggestIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    //characters of a name indexed from each word start
+    private static final int MAX_KEY_DEPTH = 20;
+
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //up to k names starting with the prefix (at any word), most popular first
+    public List<ProductSuggestion> suggest(String prefix, int k) {
+        String key = normalize(prefix);
+        List<ProductSuggestion> result = new ArrayList<>(k);
+        if (key.isEmpty() || k <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < Math.min(key.length(), MAX_KEY_DEPTH) && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return result;
+            }
+            //nodes are ranked by the best score below them, entries by their own score
+            PriorityQueue<Object> queue = new PriorityQueue<>(Comparator
+                    .comparingLong(ProductSuggestIndex::score).reversed()
+                    .thenComparing(o -> o instanceof Node));
+            Set<Long> seen = new HashSet<>();
+            queue.add(node);
+            while (!queue.isEmpty() && result.size() < k) {
+                Object next = queue.poll();
+                if (next instanceof Entry entry) {
+                    if ((key.length() <= MAX_KEY_DEPTH || entry.matches(key)) && seen.add(entry.id)) {
+                        result.add(new ProductSuggestion(entry.id, entry.name));
+                    }
+                } else {
+                    Node n = (Node) next;
+                    queue.addAll(n.entries);
+                    queue.addAll(n.children.values());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.entries.clear();
+            root.best = 0;
+            //keep popularity across reloads, only names come from the database
+            Map<Long, Long> scores = new HashMap<>();
+            entries.forEach((id, entry) -> scores.put(id, entry.score));
+            entries.clear();
+            for (ProductModel product : products) {
+                add(product, scores.getOrDefault(product.getId(), 0L));
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Suggest index loaded with {} products", entries.size());
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        lock.writeLock().lock();
+        try {
+            Entry old = remove(product.getId());
+            add(product, old != null ? old.score : 0L);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                entry.score += quantity;
+                for (String key : entry.keys) {
+                    updateBest(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(ProductModel product, long score) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        String name = normalize(product.getName());
+        if (name.isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(product.getId(), product.getName(), name, score, wordStarts(name));
+        entries.put(entry.id, entry);
+        for (String key : entry.keys) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            node.entries.add(entry);
+            updateBest(key);
+        }
+    }
+
+    private Entry remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        for (String key : entry.keys) {
+            Node[] path = path(key);
+            path[key.length()].entries.remove(entry);
+            //prune nodes left without entries or children, then refresh the scores above
+            for (int i = key.length(); i > 0; i--) {
+                Node node = path[i];
+                if (node.entries.isEmpty() && node.children.isEmpty()) {
+                    path[i - 1].children.remove(key.charAt(i - 1));
+                }
+            }
+            updateBest(key);
+        }
+        return entry;
+    }
+
+    //recomputes the best score of every node on the path of a key, bottom up
+    private void updateBest(String key) {
+        Node[] path = path(key);
+        for (int i = path.length - 1; i >= 0; i--) {
+            Node node = path[i];
+            if (node == null) {
+                continue;
+            }
+            long best = -1;
+            for (Entry entry : node.entries) {
+                best = Math.max(best, entry.score);
+            }
+            for (Node child : node.children.values()) {
+                best = Math.max(best, child.best);
+            }
+            node.best = best;
+        }
+    }
+
+    //nodes from the root to the end of the key, null past the last existing node
+    private Node[] path(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length() && path[i] != null; i++) {
+            path[i + 1] = path[i].children.get(key.charAt(i));
+        }
+        return path;
+    }
+
+    //the name from the start of each word, "iphone 15 pro" -> [iphone 15 pro, 15 pro, pro],
+    //cut at MAX_KEY_DEPTH. keys that are the same after the cut are kept once
+    private static List<String> wordStarts(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != ' ' && (i == 0 || name.charAt(i - 1) == ' ')) {
+                keys.add(name.substring(i, Math.min(name.length(), i + MAX_KEY_DEPTH)));
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    //lower case, accents removed and runs of whitespace collapsed to one space
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static long score(Object o) {
+        return o instanceof Entry entry ? entry.score : ((Node) o).best;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<Entry> entries = new ArrayList<>(1);
+        private long best = -1;
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String name;
+        private final String normalized;
+        private final List<String> keys;
+        private long score;
+
+        private Entry(long id, String name, String normalized, long score, List<String> keys) {
+            this.id = id;
+            this.name = name;
+            this.normalized = normalized;
+            this.score = score;
+            this.keys = keys;
+        }
+
+        //a word of the name starts with the whole prefix, for prefixes longer than the keys
+        private boolean matches(String prefix) {
+            return normalized.startsWith(prefix) || normalized.contains(" " + prefix);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.microservice.product_service.index;
+
+import java.util.Arrays;
+
+//Growable sorted set of longs backed by a primitive array, used as a posting list
+final class SortedLongList {
+    private long[] values = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int i) {
+        return values[i];
+    }
+
+    void add(long value) {
+        //ids mostly arrive in increasing order, so appending is the common case
+        if (size == 0 || values[size - 1] < value) {
+            grow();
+            values[size++] = value;
+            return;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        grow();
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        size++;
+    }
+
+    void remove(long value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+    }
+
+    boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void grow() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.microservice.product_service.model;
+
+import java.util.List;
+
+//Product ids of one order as sent by the order service, not a JPA entity
+
+public class OrderBasket {
+    private Long orderId;
+    private List<Long> productIds;
+
+    // No-arg constructor
+    public OrderBasket() {}
+
+    // All-arg constructor
+    public OrderBasket(Long orderId, List<Long> productIds) {
+        this.orderId = orderId;
+        this.productIds = productIds;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+}
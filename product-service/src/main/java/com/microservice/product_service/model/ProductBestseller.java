@@ -0,0 +1,54 @@
+package com.microservice.product_service.model;
+
+//One row of the bestseller leaderboard, not a JPA entity
+
+public class ProductBestseller {
+    private Long productId;
+    private String name;
+    private String category;
+    private double score;  // units reserved, older sales decayed by the configured half-life
+
+    // No-arg constructor
+    public ProductBestseller() {}
+
+    // All-arg constructor
+    public ProductBestseller(Long productId, String name, String category, double score) {
+        this.productId = productId;
+        this.name = name;
+        this.category = category;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,76 @@
+package com.microservice.product_service.model;
+
+import java.time.Instant;
+
+//One entry of the product change feed, not a JPA entity
+
+public class ProductChange {
+    private long sequence;
+    private ProductChangeType type;
+    private Long productId;
+    private ProductModel product;  // state after the change, null for deletes and reservations
+    private Integer quantity;  // units reserved, negative when released, only for STOCK_RESERVED
+    private Instant timestamp;
+
+    // No-arg constructor
+    public ProductChange() {}
+
+    // All-arg constructor
+    public ProductChange(long sequence, ProductChangeType type, Long productId, ProductModel product, Integer quantity, Instant timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public ProductChangeType getType() {
+        return type;
+    }
+
+    public void setType(ProductChangeType type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public ProductModel getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductModel product) {
+        this.product = product;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,5 @@
+package com.microservice.product_service.model;
+
+public enum ProductChangeType {
+    CREATED, UPDATED, DELETED, STOCK_RESERVED
+}
@@ -0,0 +1,57 @@
+package com.microservice.product_service.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//One page of a delta sync, not a JPA entity
+
+public class ProductDelta {
+    private List<ProductModel> changed = new ArrayList<>();
+    private List<Long> deleted = new ArrayList<>();
+    private long nextSince;  // pass back as since to get the following page
+    private boolean hasMore;
+
+    // No-arg constructor
+    public ProductDelta() {}
+
+    // All-arg constructor
+    public ProductDelta(List<ProductModel> changed, List<Long> deleted, long nextSince, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<ProductModel> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<ProductModel> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,47 @@
+package com.microservice.product_service.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Facet counts for the catalog UI, not a JPA entity
+
+public class ProductFacets {
+    private long total;
+    private Map<String, Long> categories = new LinkedHashMap<>();  // category -> count
+    private Map<String, Long> priceBuckets = new LinkedHashMap<>();  // bucket label -> count
+
+    // No-arg constructor
+    public ProductFacets() {}
+
+    // All-arg constructor
+    public ProductFacets(long total, Map<String, Long> categories, Map<String, Long> priceBuckets) {
+        this.total = total;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Long> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Long> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(Map<String, Long> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+}
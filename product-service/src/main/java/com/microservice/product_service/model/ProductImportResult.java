@@ -0,0 +1,47 @@
+package com.microservice.product_service.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Outcome of a bulk product import, not a JPA entity
+
+public class ProductImportResult {
+    private long imported;
+    private long failed;
+    private Map<Long, String> errors = new LinkedHashMap<>();  // row number (1 based) -> reason, first rows only
+
+    // No-arg constructor
+    public ProductImportResult() {}
+
+    // All-arg constructor
+    public ProductImportResult(long imported, long failed, Map<Long, String> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Map<Long, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<Long, String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,88 @@
+package com.microservice.product_service.model;
+
+import java.util.List;
+import java.util.Map;
+
+//One batch of writes sent from a product service instance to its peers, not a JPA entity
+
+public class ProductInvalidation {
+    private String source;  // sending instance, new on every start
+    private long seq;  // consecutive per source, a gap means a batch was lost
+    private boolean refresh;  // reload the whole catalog, e.g. after a bulk import
+    private long[] saved;
+    private long[] deleted;
+    private Map<Long, Integer> reserved;  // productId -> units reserved
+    private List<OrderBasket> orders;  // placed orders for the related products index
+
+    // No-arg constructor
+    public ProductInvalidation() {}
+
+    // All-arg constructor
+    public ProductInvalidation(String source, long seq, boolean refresh, long[] saved, long[] deleted, Map<Long, Integer> reserved,
+                               List<OrderBasket> orders) {
+        this.source = source;
+        this.seq = seq;
+        this.refresh = refresh;
+        this.saved = saved;
+        this.deleted = deleted;
+        this.reserved = reserved;
+        this.orders = orders;
+    }
+
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    public void setRefresh(boolean refresh) {
+        this.refresh = refresh;
+    }
+
+    public long[] getSaved() {
+        return saved;
+    }
+
+    public void setSaved(long[] saved) {
+        this.saved = saved;
+    }
+
+    public long[] getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long[] deleted) {
+        this.deleted = deleted;
+    }
+
+    public Map<Long, Integer> getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(Map<Long, Integer> reserved) {
+        this.reserved = reserved;
+    }
+
+    public List<OrderBasket> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderBasket> orders) {
+        this.orders = orders;
+    }
+}
@@ -1,11 +1,19 @@
 package com.microservice.product_service.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
+@Table(indexes = @Index(name = "idx_product_change_seq", columnList = "change_seq"))
 public class ProductModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,6 +24,18 @@ public class ProductModel {
     private Double price;
     private Integer quantity;
 
+    // bumped on every write, used as the ETag; existing rows start at 0
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
+    // position of the last change in the delta sync order, see ProductChangeSequence
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     // No-arg constructor
     public ProductModel() {}
 
@@ -77,4 +97,28 @@ public class ProductModel {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+}
@@ -0,0 +1,10 @@
+package com.microservice.product_service.model;
+
+//Projection of ProductModel with only the columns the checkout path needs
+public interface ProductStockPrice {
+    Long getId();
+
+    Double getPrice();
+
+    Integer getQuantity();
+}
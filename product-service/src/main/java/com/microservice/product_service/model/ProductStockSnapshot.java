@@ -0,0 +1,47 @@
+package com.microservice.product_service.model;
+
+//Stock and price built in code instead of by a query, e.g. summed over the stripes of a hot product
+
+public class ProductStockSnapshot implements ProductStockPrice {
+    private Long id;
+    private Double price;
+    private Integer quantity;
+
+    // No-arg constructor
+    public ProductStockSnapshot() {}
+
+    // All-arg constructor
+    public ProductStockSnapshot(Long id, Double price, Integer quantity) {
+        this.id = id;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    @Override
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservice.product_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+//One share of the stock of a product in hot mode. Reservations update different
+//stripe rows, so they do not all queue on the same row lock.
+@Entity
+@Table(name = "product_stock_stripe", uniqueConstraints = @UniqueConstraint(name = "uk_stripe_product", columnNames = {"product_id", "stripe"}))
+public class ProductStockStripe {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "product_id")
+    private Long productId;
+    private Integer stripe;
+    private Integer quantity;
+
+    // No-arg constructor
+    public ProductStockStripe() {}
+
+    // All-arg constructor
+    public ProductStockStripe(Long id, Long productId, Integer stripe, Integer quantity) {
+        this.id = id;
+        this.productId = productId;
+        this.stripe = stripe;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStripe() {
+        return stripe;
+    }
+
+    public void setStripe(Integer stripe) {
+        this.stripe = stripe;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,34 @@
+package com.microservice.product_service.model;
+
+//One autocomplete entry for the search box, not a JPA entity
+
+public class ProductSuggestion {
+    private Long id;
+    private String name;
+
+    // No-arg constructor
+    public ProductSuggestion() {}
+
+    // All-arg constructor
+    public ProductSuggestion(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
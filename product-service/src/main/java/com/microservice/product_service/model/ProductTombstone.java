@@ -0,0 +1,58 @@
+package com.microservice.product_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+//Marker left behind by a deleted product so delta sync clients can drop it too.
+//Product ids are IDENTITY values and never reused, so the product id is the key.
+@Entity
+@Table(name = "product_tombstone", indexes = @Index(name = "idx_tombstone_change_seq", columnList = "change_seq"))
+public class ProductTombstone {
+    @Id
+    private Long productId;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    private Instant deletedAt;
+
+    // No-arg constructor
+    public ProductTombstone() {}
+
+    // All-arg constructor
+    public ProductTombstone(Long productId, Long changeSeq, Instant deletedAt) {
+        this.productId = productId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = deletedAt;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.microservice.product_service.model;
+
+//A product bought together with another one, not a JPA entity
+
+public class RelatedProduct {
+    private Long productId;
+    private long orders;  // orders that contained both products
+
+    // No-arg constructor
+    public RelatedProduct() {}
+
+    // All-arg constructor
+    public RelatedProduct(Long productId, long orders) {
+        this.productId = productId;
+        this.orders = orders;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+}
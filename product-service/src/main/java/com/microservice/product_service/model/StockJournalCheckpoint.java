@@ -0,0 +1,41 @@
+package com.microservice.product_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//Last stock journal lsn already applied to the product table, a single row with id 1
+
+@Entity
+@Table(name = "stock_journal_checkpoint")
+public class StockJournalCheckpoint {
+    @Id
+    private Integer id;
+    private Long lsn;
+
+    // No-arg constructor
+    public StockJournalCheckpoint() {}
+
+    // All-arg constructor
+    public StockJournalCheckpoint(Integer id, Long lsn) {
+        this.id = id;
+        this.lsn = lsn;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getLsn() {
+        return lsn;
+    }
+
+    public void setLsn(Long lsn) {
+        this.lsn = lsn;
+    }
+}
@@ -0,0 +1,187 @@
+package com.microservice.product_service.peer;
+
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.ProductInvalidation;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Collects the writes of this instance and sends them to every other product service
+//instance found in Eureka, so their caches and indexes follow. Writes are batched for
+//product.peers.batch-interval-ms and deduplicated per product; each batch carries the next
+//sequence number of this instance so a receiver can tell when it missed one.
+//Writes are only queued once they committed (see ProductService.publish), a peer re-reading
+//a product never finds the row from before the write.
+@Component
+@ConditionalOnProperty(name = "product.peers.enabled", havingValue = "true")
+public class PeerInvalidationBroadcaster implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(PeerInvalidationBroadcaster.class);
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired(required = false)
+    private Registration registration;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    private final String source = UUID.randomUUID().toString();
+    private final RestClient restClient;
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "peer-invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //true while changes received from a peer are applied, those must not be sent back out
+    private final ThreadLocal<Boolean> applyingPeerChanges = ThreadLocal.withInitial(() -> false);
+
+    private final Object lock = new Object();
+    private Map<Long, Boolean> pending = new LinkedHashMap<>();  // productId -> deleted, the last write wins
+    private Map<Long, Integer> reserved = new HashMap<>();
+    private List<OrderBasket> orders = new ArrayList<>();
+    private boolean refresh;
+    private boolean startupLoadSeen;
+    private long seq;
+
+    public PeerInvalidationBroadcaster(@Value("${product.peers.batch-interval-ms:50}") long batchIntervalMillis,
+                                       @Value("${product.peers.timeout-ms:1000}") int timeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        sender.scheduleWithFixedDelay(this::send, batchIntervalMillis, batchIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    //runs action without broadcasting the listener calls it makes
+    public void applyingPeerChanges(Runnable action) {
+        applyingPeerChanges.set(true);
+        try {
+            action.run();
+        } finally {
+            applyingPeerChanges.remove();
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        synchronized (lock) {
+            //every instance loads its own catalog at startup, later reloads follow a bulk import
+            if (startupLoadSeen && !applyingPeerChanges.get()) {
+                refresh = true;
+            }
+            startupLoadSeen = true;
+        }
+    }
+
+    @Override
+    public void productSaved(ProductModel product) {
+        record(product.getId(), false);
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        record(id, true);
+    }
+
+    @Override
+    public void stockReserved(Long id, int quantity) {
+        if (applyingPeerChanges.get()) {
+            return;
+        }
+        synchronized (lock) {
+            reserved.merge(id, quantity, Integer::sum);
+        }
+    }
+
+    //the order service reports an order to one instance only
+    @Override
+    public void orderRecorded(OrderBasket order) {
+        if (applyingPeerChanges.get()) {
+            return;
+        }
+        synchronized (lock) {
+            orders.add(order);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdown();
+        send();
+    }
+
+    private void record(Long id, boolean deleted) {
+        if (applyingPeerChanges.get()) {
+            return;
+        }
+        synchronized (lock) {
+            pending.put(id, deleted);
+        }
+    }
+
+    private void send() {
+        ProductInvalidation batch;
+        synchronized (lock) {
+            if (pending.isEmpty() && reserved.isEmpty() && orders.isEmpty() && !refresh) {
+                return;
+            }
+            batch = new ProductInvalidation(source, ++seq, refresh,
+                    pending.entrySet().stream().filter(e -> !e.getValue()).mapToLong(Map.Entry::getKey).toArray(),
+                    pending.entrySet().stream().filter(Map.Entry::getValue).mapToLong(Map.Entry::getKey).toArray(),
+                    reserved, orders);
+            pending = new LinkedHashMap<>();
+            reserved = new HashMap<>();
+            orders = new ArrayList<>();
+            refresh = false;
+        }
+        String self = registration != null ? registration.getInstanceId() : null;
+        List<ServiceInstance> peers;
+        try {
+            peers = discoveryClient.getInstances(serviceId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not look up product service peers for batch {}: {}", batch.getSeq(), e.getMessage());
+            return;
+        }
+        for (ServiceInstance peer : peers) {
+            if (peer.getInstanceId() != null && peer.getInstanceId().equals(self)) {
+                continue;
+            }
+            try {
+                restClient.post()
+                        .uri(peer.getUri().resolve("/products/peers/invalidations"))
+                        .body(batch)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RuntimeException e) {
+                //the peer sees the gap in the sequence on the next batch and reloads
+                logger.warn("Could not send invalidation batch {} to {}: {}", batch.getSeq(), peer.getUri(), e.getMessage());
+            }
+        }
+    }
+}
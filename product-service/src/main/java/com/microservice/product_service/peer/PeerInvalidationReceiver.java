@@ -0,0 +1,55 @@
+package com.microservice.product_service.peer;
+
+import com.microservice.product_service.model.ProductInvalidation;
+import com.microservice.product_service.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+//Applies invalidation batches from other instances. Batches from one source are applied
+//in sequence order; when one is missing the local state can no longer be trusted and the
+//whole catalog is reloaded from the database instead.
+@Component
+@ConditionalOnProperty(name = "product.peers.enabled", havingValue = "true")
+public class PeerInvalidationReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(PeerInvalidationReceiver.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PeerInvalidationBroadcaster broadcaster;
+
+    private final Map<String, Long> lastSeq = new HashMap<>();  // source -> last applied sequence
+
+    public synchronized void receive(ProductInvalidation batch) {
+        if (batch.getSource().equals(broadcaster.getSource())) {
+            return;
+        }
+        Long last = lastSeq.get(batch.getSource());
+        if (last != null && batch.getSeq() <= last) {
+            //already applied, or overtaken by a reload
+            return;
+        }
+        lastSeq.put(batch.getSource(), batch.getSeq());
+        //the first batch of a source is taken as is, it started after or with this instance
+        boolean gap = last != null && batch.getSeq() != last + 1;
+        if (gap || batch.isRefresh()) {
+            if (gap) {
+                logger.warn("Missed invalidation batches {} to {} from {}, reloading the catalog",
+                        last + 1, batch.getSeq() - 1, batch.getSource());
+            }
+            broadcaster.applyingPeerChanges(productService::loadIndexes);
+            return;
+        }
+        broadcaster.applyingPeerChanges(() -> productService.applyPeerChanges(batch.getSaved(), batch.getDeleted(),
+                batch.getReserved() != null ? batch.getReserved() : new HashMap<>(),
+                batch.getOrders() != null ? batch.getOrders() : new ArrayList<>()));
+    }
+}
@@ -1,20 +1,133 @@
 package com.microservice.product_service.repository;
 
 import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockPrice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<ProductModel, Long> {
 	
 	//Query for finding the products between the price range
     List<ProductModel> findByPriceBetween(Double minPrice, Double maxPrice);
+
+    List<ProductModel> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
+
+    long countByPriceBetween(Double minPrice, Double maxPrice);
     
     //Query for finding the products by the name
     List<ProductModel> findByNameContaining(String name);
     
     //query for finding the product category
     List<ProductModel> findByCategory(String category);
+
+    //keyset page: the next products after the given id
+    List<ProductModel> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    //forward-only cursor over the catalog, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select p from ProductModel p order by p.id")
+    Stream<ProductModel> streamAll();
+
+    //same cursor limited to products changed at or after the given time
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select p from ProductModel p where p.lastModified >= :since order by p.id")
+    Stream<ProductModel> streamModifiedSince(@Param("since") Instant since);
+
+    //in-stock products one page at a time, used by search without index criteria.
+    //hot products keep their stock in stripes, they count when one of them is not empty
+    @Query("select p from ProductModel p where p.quantity > 0 or exists "
+            + "(select s.id from ProductStockStripe s where s.productId = p.id and s.quantity > 0)")
+    List<ProductModel> findInStock(Pageable pageable);
+
+    //search on the table itself while the in-memory indexes are not loaded yet, a null criterion
+    //matches everything. name is a lower case like pattern with ! as escape character,
+    //a backslash would need escaping differently per database
+    @Query("select p from ProductModel p where (:name is null or lower(p.name) like :name escape '!') "
+            + "and (:category is null or p.category = :category) "
+            + "and (:minPrice is null or p.price >= :minPrice) and (:maxPrice is null or p.price <= :maxPrice) "
+            + "and (:inStock = false or p.quantity > 0 or exists "
+            + "(select s.id from ProductStockStripe s where s.productId = p.id and s.quantity > 0))")
+    List<ProductModel> search(@Param("name") String name, @Param("category") String category,
+                              @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                              @Param("inStock") boolean inStock, Pageable pageable);
+
+    //products per category, the null category included, for the facets before their index is loaded
+    @Query("select p.category, count(p) from ProductModel p group by p.category")
+    List<Object[]> countByCategory();
+
+    //same for the products with a price in [min, max), a null bound leaves that side open
+    @Query("select p.category, count(p) from ProductModel p where p.price is not null "
+            + "and (:min is null or p.price >= :min) and (:max is null or p.price < :max) group by p.category")
+    List<Object[]> countByCategoryInPriceRange(@Param("min") Double min, @Param("max") Double max);
+
+    //product row locked for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ProductModel p where p.id = :id")
+    Optional<ProductModel> lockById(@Param("id") Long id);
+
+    //selects only id, price and quantity for the order service
+    Optional<ProductStockPrice> findStockPriceById(Long id);
+
+    //decrements stock in one statement, returns 0 when the product is missing or has too little stock
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProductModel p set p.quantity = p.quantity - :quantity, p.version = p.version + 1, p.lastModified = :now, "
+            + "p.changeSeq = :changeSeq where p.id = :id and p.quantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") Integer quantity, @Param("now") Instant now,
+                     @Param("changeSeq") Long changeSeq);
+
+    //puts units of a reservation back, e.g. when the rest of the order could not be reserved
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProductModel p set p.quantity = p.quantity + :quantity, p.version = p.version + 1, p.lastModified = :now, "
+            + "p.changeSeq = :changeSeq where p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") Integer quantity, @Param("now") Instant now,
+                     @Param("changeSeq") Long changeSeq);
+
+    //new version, last modified time and change sequence for a product whose stock changed
+    //outside its row, in its hot stock stripes
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProductModel p set p.version = p.version + 1, p.lastModified = :now, p.changeSeq = :changeSeq where p.id = :id")
+    int touch(@Param("id") Long id, @Param("now") Instant now, @Param("changeSeq") Long changeSeq);
+
+    //keyset page of products changed after a change sequence, up to the watermark of completed writes
+    List<ProductModel> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(Long changeSeq, Long watermark, Pageable pageable);
+
+    //rows written by one batch of the bulk import
+    List<ProductModel> findByChangeSeqIn(Collection<Long> changeSeqs);
+
+    //most recently written rows first, reservations count as writes so these are the products selling now
+    List<ProductModel> findAllByOrderByLastModifiedDesc(Pageable pageable);
+
+    @Query("select max(p.changeSeq) from ProductModel p")
+    Long maxChangeSeq();
+
+    //rows written before the change sequence existed get their id, which sorts below any new value
+    @Transactional
+    @Modifying
+    @Query("update ProductModel p set p.changeSeq = p.id where p.changeSeq is null")
+    int backfillChangeSeq();
 }
\ No newline at end of file
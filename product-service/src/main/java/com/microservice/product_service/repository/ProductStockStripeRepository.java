@@ -0,0 +1,44 @@
+package com.microservice.product_service.repository;
+
+import com.microservice.product_service.model.ProductStockStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ProductStockStripeRepository extends JpaRepository<ProductStockStripe, Long> {
+
+    //decrements one stripe in one statement, returns 0 when it has too little stock
+    @Transactional
+    @Modifying
+    @Query("update ProductStockStripe s set s.quantity = s.quantity - :quantity "
+            + "where s.productId = :productId and s.stripe = :stripe and s.quantity >= :quantity")
+    int take(@Param("productId") Long productId, @Param("stripe") Integer stripe, @Param("quantity") Integer quantity);
+
+    //adds units back to one stripe
+    @Transactional
+    @Modifying
+    @Query("update ProductStockStripe s set s.quantity = s.quantity + :quantity "
+            + "where s.productId = :productId and s.stripe = :stripe")
+    int give(@Param("productId") Long productId, @Param("stripe") Integer stripe, @Param("quantity") Integer quantity);
+
+    @Query("select coalesce(sum(s.quantity), 0) from ProductStockStripe s where s.productId = :productId")
+    long totalQuantity(@Param("productId") Long productId);
+
+    //all stripes of a product locked in stripe order, for the rare multi stripe paths
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ProductStockStripe> findByProductIdOrderByStripeAsc(Long productId);
+
+    long countByProductId(Long productId);
+
+    //productId and stripe count of every product in hot mode
+    @Query("select s.productId, count(s) from ProductStockStripe s group by s.productId")
+    List<Object[]> countStripesByProduct();
+}
@@ -0,0 +1,19 @@
+package com.microservice.product_service.repository;
+
+import com.microservice.product_service.model.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    //keyset page of deletes after a change sequence, up to the watermark of completed writes
+    List<ProductTombstone> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(Long changeSeq, Long watermark, Pageable pageable);
+
+    @Query("select max(t.changeSeq) from ProductTombstone t")
+    Long maxChangeSeq();
+}
@@ -0,0 +1,71 @@
+package com.microservice.product_service.repository;
+
+import com.microservice.product_service.model.ProductModel;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+//Read-only R2DBC queries over product_model. Rows are emitted as the driver reads them,
+//so a slow client holds back the query instead of a thread. The quantity includes the
+//stripes of products in hot stock mode, as GET /products/{id} does.
+@Repository
+@ConditionalOnProperty(name = "product.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveProductRepository {
+
+    private static final String SELECT = "select p.id, p.name, p.description, p.category, p.price, p.version, "
+            + "p.last_modified, p.change_seq, p.quantity + coalesce((select sum(s.quantity) from product_stock_stripe s "
+            + "where s.product_id = p.id), 0) as quantity from product_model p ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<ProductModel> findAll() {
+        return databaseClient.sql(SELECT + "order by p.id").map(ReactiveProductRepository::toProduct).all();
+    }
+
+    public Mono<ProductModel> findById(Long id) {
+        return databaseClient.sql(SELECT + "where p.id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    //cheapest first, ties by id like the price index
+    public Flux<ProductModel> findByPriceBetween(Double minPrice, Double maxPrice) {
+        return databaseClient.sql(SELECT + "where p.price between :min and :max order by p.price, p.id")
+                .bind("min", minPrice)
+                .bind("max", maxPrice)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<ProductModel> findByNameContaining(String name) {
+        return databaseClient.sql(SELECT + "where p.name like :name order by p.id")
+                .bind("name", "%" + name + "%")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<ProductModel> findByCategory(String category) {
+        return databaseClient.sql(SELECT + "where p.category = :category order by p.id")
+                .bind("category", category)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    private static ProductModel toProduct(Readable row) {
+        ProductModel product = new ProductModel(row.get("id", Long.class), row.get("name", String.class),
+                row.get("description", String.class), row.get("category", String.class),
+                row.get("price", Double.class), row.get("quantity", Integer.class));
+        product.setVersion(row.get("version", Long.class));
+        product.setLastModified(row.get("last_modified", Instant.class));
+        product.setChangeSeq(row.get("change_seq", Long.class));
+        return product;
+    }
+}
@@ -0,0 +1,214 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductStockStripe;
+import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.repository.ProductStockStripeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Stock of products in hot mode, split over N stripe rows. A reservation starts at the
+//stripe picked by the calling thread and moves on to the neighbours when one runs dry,
+//so concurrent checkouts of one product mostly lock different rows. Reads sum the stripes.
+//The product row is not touched per reservation, its version, last modified time and
+//change sequence are bumped once per product.hot-stock.touch-interval-ms instead.
+@Service
+public class HotStockService {
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+
+    @Autowired
+    private ProductStockStripeRepository stripeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeSequence changeSequence;
+
+    @Autowired(required = false)
+    private List<ProductChangeListener> changeListeners = new ArrayList<>();
+
+    @Value("${product.hot-stock.touch-interval-ms:200}")
+    private long touchIntervalMillis;
+
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();  // productId -> stripes
+    private final Set<Long> reservedSinceTouch = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService toucher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hot-stock-toucher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void startToucher() {
+        toucher.scheduleWithFixedDelay(this::touchReserved, touchIntervalMillis, touchIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopToucher() {
+        toucher.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void loadHotProducts() {
+        for (Object[] row : stripeRepository.countStripesByProduct()) {
+            stripeCounts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        logger.info("{} products in hot stock mode", stripeCounts.size());
+    }
+
+    //hot mode may have been switched on by another instance, so a product not known here is looked up
+    public boolean isHot(Long productId) {
+        return stripes(productId) > 0;
+    }
+
+    public boolean hasHotProducts() {
+        return !stripeCounts.isEmpty();
+    }
+
+    //stripes known to this instance, without a lookup
+    public int stripeCount(Long productId) {
+        return stripeCounts.getOrDefault(productId, 0);
+    }
+
+    //spreads the quantity evenly, must run in the transaction that zeroes the product row
+    public void split(Long productId, int quantity, int stripes) {
+        List<ProductStockStripe> rows = new ArrayList<>(stripes);
+        for (int s = 0; s < stripes; s++) {
+            rows.add(new ProductStockStripe(null, productId, s, quantity / stripes + (s < quantity % stripes ? 1 : 0)));
+        }
+        stripeRepository.saveAll(rows);
+        stripeCounts.put(productId, stripes);
+    }
+
+    //replaces the stock in the stripes, the rows are updated in place under their lock so a
+    //reservation running at the same time either lands before the new quantity or after it
+    public void resplit(Long productId, int quantity) {
+        List<ProductStockStripe> rows = stripeRepository.findByProductIdOrderByStripeAsc(productId);
+        int stripes = rows.size();
+        for (int s = 0; s < stripes; s++) {
+            rows.get(s).setQuantity(quantity / stripes + (s < quantity % stripes ? 1 : 0));
+        }
+        stripeRepository.saveAll(rows);
+    }
+
+    //removes the stripes and returns what was left in them, must run in the transaction that refills the product row.
+    //the delete runs right away, so a split in the same transaction does not collide with the old rows
+    public int merge(Long productId) {
+        List<ProductStockStripe> rows = stripeRepository.findByProductIdOrderByStripeAsc(productId);
+        int total = rows.stream().mapToInt(ProductStockStripe::getQuantity).sum();
+        stripeRepository.deleteAllInBatch(rows);
+        stripeCounts.remove(productId);
+        return total;
+    }
+
+    public int totalQuantity(Long productId) {
+        return (int) stripeRepository.totalQuantity(productId);
+    }
+
+    //takes the quantity from the stripes, false when they hold too little or the product is not hot
+    public boolean reserve(Long productId, int quantity) {
+        int stripes = stripes(productId);
+        if (stripes == 0) {
+            return false;
+        }
+        int start = (int) (Thread.currentThread().threadId() % stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (stripeRepository.take(productId, (start + i) % stripes, quantity) == 1) {
+                reservedSinceTouch.add(productId);
+                return true;
+            }
+        }
+        //no single stripe holds enough, take from several under a lock of all stripes
+        Boolean taken = transactionTemplate.execute(status -> takeAcrossStripes(productId, quantity));
+        if (Boolean.TRUE.equals(taken)) {
+            reservedSinceTouch.add(productId);
+            return true;
+        }
+        return false;
+    }
+
+    //puts units back into one stripe, false when the product is not hot
+    public boolean release(Long productId, int quantity) {
+        int stripes = stripes(productId);
+        if (stripes == 0) {
+            return false;
+        }
+        if (stripeRepository.give(productId, (int) (Thread.currentThread().threadId() % stripes), quantity) != 1) {
+            return false;
+        }
+        reservedSinceTouch.add(productId);
+        return true;
+    }
+
+    //bumps the product rows of everything reserved since the last run, so ETags, the delta sync
+    //and the caches of this and the other instances pick up the new stock
+    public void touchReserved() {
+        try {
+            for (Iterator<Long> it = reservedSinceTouch.iterator(); it.hasNext(); ) {
+                Long productId = it.next();
+                it.remove();
+                if (changeSequence.write(seq -> productRepository.touch(productId, Instant.now(), seq)) == 1) {
+                    productRepository.findById(productId)
+                            .ifPresent(product -> changeListeners.forEach(listener -> listener.productSaved(product)));
+                }
+            }
+        } catch (RuntimeException e) {
+            //a scheduled task that throws is never run again
+            logger.warn("Could not bump the rows of hot products", e);
+        }
+    }
+
+    //stripe count of a product, read from the table and remembered when this instance does not know it yet
+    private int stripes(Long productId) {
+        Integer stripes = stripeCounts.get(productId);
+        if (stripes != null) {
+            return stripes;
+        }
+        long count = stripeRepository.countByProductId(productId);
+        if (count == 0) {
+            return 0;
+        }
+        stripeCounts.put(productId, (int) count);
+        return (int) count;
+    }
+
+    private boolean takeAcrossStripes(Long productId, int quantity) {
+        List<ProductStockStripe> rows = stripeRepository.findByProductIdOrderByStripeAsc(productId);
+        if (rows.stream().mapToInt(ProductStockStripe::getQuantity).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (ProductStockStripe row : rows) {
+            int taken = Math.min(remaining, row.getQuantity());
+            row.setQuantity(row.getQuantity() - taken);
+            remaining -= taken;
+        }
+        stripeRepository.saveAll(rows);
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.ProductModel;
+
+import java.util.List;
+
+//Implemented by in-memory structures that mirror the catalog. ProductService loads them
+//once at startup and then calls them after every write so they never need the database.
+public interface ProductChangeListener {
+
+    //full catalog, called once the application is ready
+    void productsLoaded(List<ProductModel> products);
+
+    //product was added or updated
+    void productSaved(ProductModel product);
+
+    void productDeleted(Long id);
+
+    //quantity units were taken out of stock by an order, negative when an order that failed gave them back
+    default void stockReserved(Long id, int quantity) {
+    }
+
+    //the products of a placed order, reported by the order service
+    default void orderRecorded(OrderBasket order) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.microservice.product_service.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductImportResult;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+//Bulk import of supplier catalogs. Rows are read one at a time from the request body,
+//validated like addProduct and written with plain JDBC batches instead of one entity save per row.
+//A batch that was written stays written: rows that cannot be read, or a body that breaks off,
+//are reported as failed rows next to the count of the rows already imported.
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_SQL = "insert into product_model "
+            + "(name, description, category, price, quantity, version, last_modified, change_seq) values (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    //only the first errors are reported so a bad file cannot blow up the response
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductChangeSequence changeSequence;
+
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    //up to this many rows the listeners hear about every imported row, above it the indexes are rebuilt once
+    @Value("${product.import.reload-threshold:50000}")
+    private long reloadThreshold = 50000;
+
+    //body is a JSON array of products
+    public ProductImportResult importJson(InputStream in) {
+        logger.info("Importing products from JSON");
+        Batch batch = new Batch();
+        long row = 0;
+        boolean started = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ProductException("Expected a JSON array of products");
+            }
+            started = true;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    batch.fail(row + 1, "Unexpected end of JSON");
+                    break;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    batch.fail(row + 1, "Expected a product object but found " + token);
+                    parser.skipChildren();
+                } else {
+                    //read the row as a tree first so a bad field only fails this row
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        batch.add(row + 1, objectMapper.treeToValue(node, ProductModel.class));
+                    } catch (JsonProcessingException e) {
+                        batch.fail(row + 1, "Invalid product: " + e.getOriginalMessage());
+                    }
+                }
+                //counted once the element is read, so a body breaking off inside it fails that row
+                row++;
+            }
+        } catch (IOException e) {
+            if (!started) {
+                throw new ProductException("Invalid JSON: " + e.getMessage());
+            }
+            //earlier batches are committed, report where the body broke off
+            batch.fail(row + 1, "Invalid JSON: " + e.getMessage());
+        }
+        return batch.finish();
+    }
+
+    //body is CSV with a header line: name,description,category,price,quantity
+    public ProductImportResult importCsv(InputStream in) {
+        logger.info("Importing products from CSV");
+        Batch batch = new Batch();
+        long row = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new ProductException("CSV body is empty");
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                row++;
+                List<String> fields = parseCsvLine(line);
+                if (fields.size() != 5) {
+                    batch.fail(row, "Expected 5 fields but found " + fields.size());
+                    continue;
+                }
+                try {
+                    batch.add(row, new ProductModel(null, fields.get(0), fields.get(1), fields.get(2),
+                            Double.valueOf(fields.get(3)), Integer.valueOf(fields.get(4))));
+                } catch (NumberFormatException e) {
+                    batch.fail(row, "Invalid number: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            //earlier batches are committed, report where reading stopped
+            batch.fail(row + 1, "Could not read CSV: " + e.getMessage());
+        }
+        return batch.finish();
+    }
+
+    //splits one CSV line, fields may be quoted and quotes inside are doubled
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    //collects valid rows and flushes them in batches of batchSize
+    private class Batch {
+        private List<Object[]> rows = new ArrayList<>(batchSize);
+        private final ProductImportResult result = new ProductImportResult();
+        private final Timestamp now = Timestamp.from(Instant.now());
+
+        void add(long row, ProductModel product) {
+            try {
+                productService.validateProduct(product);
+            } catch (ProductException e) {
+                fail(row, e.getMessage());
+                return;
+            }
+            rows.add(new Object[]{product.getName(), product.getDescription(), product.getCategory(),
+                    product.getPrice(), product.getQuantity(), now, null});
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String reason) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().put(row, reason);
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            //change sequences are taken right before the batch so they are in flight while it runs
+            List<Object[]> batch = rows;
+            changeSequence.writeAll(batch.size(), seqs -> {
+                for (int i = 0; i < seqs.length; i++) {
+                    batch.get(i)[6] = seqs[i];
+                }
+                return jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            });
+            result.setImported(result.getImported() + rows.size());
+            //rows bypassed the entity listeners, found again by the change sequences they were given
+            if (result.getImported() <= reloadThreshold) {
+                productService.productsImported(productRepository.findByChangeSeqIn(
+                        batch.stream().map(row -> (Long) row[6]).toList()));
+            }
+            rows = new ArrayList<>(batchSize);
+        }
+
+        ProductImportResult finish() {
+            flush();
+            logger.info("Imported {} products, {} rows rejected", result.getImported(), result.getFailed());
+            if (result.getImported() > reloadThreshold) {
+                //too many rows to announce one by one, rebuild indexes and caches from the table
+                productService.loadIndexes();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.index.ProductFacetIndex;
+import com.microservice.product_service.index.ProductNameIndex;
+import com.microservice.product_service.index.ProductPriceIndex;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Combined product search. The planner asks every index how many products its criterion
+//matches, materializes the smallest candidate set only and checks the other criteria
+//per candidate against the in-memory indexes, so the cost follows the result size.
+@Service
+public class ProductSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int FETCH_BATCH = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductNameIndex nameIndex;
+
+    @Autowired
+    private ProductPriceIndex priceIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    //sort: id (default), price_asc, price_desc or name
+    public List<ProductModel> search(String name, String category, Double minPrice, Double maxPrice,
+                                     boolean inStock, String sort, int page, int size) {
+        logger.info("Searching products with name: {}, category: {}, price: {}-{}, inStock: {}, sort: {}, page: {}, size: {}",
+                name, category, minPrice, maxPrice, inStock, sort, page, size);
+        if (page < 0 || size <= 0) {
+            throw new ProductException("Page must not be negative and size must be positive");
+        }
+        Comparator<Long> order = comparator(sort);
+        boolean byName = name != null && !name.isBlank();
+        boolean byCategory = category != null && !category.isBlank();
+        boolean byPrice = minPrice != null || maxPrice != null;
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+
+        //nothing to drive from, let the database page the whole catalog
+        if (!byName && !byCategory && !byPrice) {
+            PageRequest pageable = PageRequest.of(page, size, dbSort(sort));
+            return productService.withCurrentStock(inStock ? productRepository.findInStock(pageable)
+                    : productRepository.findAll(pageable).getContent());
+        }
+        //the indexes are loaded at startup, until then the database answers. loading them here
+        //would read the whole catalog on a request and, with peers enabled, reload every peer too
+        if (!nameIndex.isLoaded() || !priceIndex.isLoaded() || !facetIndex.isLoaded()) {
+            logger.debug("Indexes not loaded yet, searching the database");
+            return productService.withCurrentStock(productRepository.search(byName ? likePattern(name) : null,
+                    byCategory ? category : null, minPrice, maxPrice, inStock, PageRequest.of(page, size, dbSort(sort))));
+        }
+
+        //estimate every criterion and drive from the most selective one
+        long nameEstimate = byName ? nameIndex.estimate(name) : Long.MAX_VALUE;
+        BitSet categoryBits = byCategory ? facetIndex.category(category) : null;
+        long categoryEstimate = byCategory ? categoryBits.cardinality() : Long.MAX_VALUE;
+        long priceEstimate = byPrice ? priceIndex.count(min, max) : Long.MAX_VALUE;
+
+        long[] candidates;
+        String driver;
+        if (nameEstimate <= categoryEstimate && nameEstimate <= priceEstimate) {
+            candidates = nameIndex.search(name);
+            driver = "name";
+        } else if (categoryEstimate <= priceEstimate) {
+            candidates = categoryBits.stream().asLongStream().toArray();
+            driver = "category";
+        } else {
+            candidates = priceIndex.range(min, max, 0, Integer.MAX_VALUE);
+            driver = "price";
+        }
+        logger.debug("Search driven by {} with {} candidates", driver, candidates.length);
+
+        List<Long> matches = new ArrayList<>();
+        for (long id : candidates) {
+            if (byName && !driver.equals("name") && !nameIndex.matches(id, name)) {
+                continue;
+            }
+            if (byCategory && !driver.equals("category") && (id > Integer.MAX_VALUE || !categoryBits.get((int) id))) {
+                continue;
+            }
+            if (byPrice && !driver.equals("price")) {
+                Double price = priceIndex.price(id);
+                if (price == null || price < min || price > max) {
+                    continue;
+                }
+            }
+            matches.add(id);
+        }
+        matches.sort(order);
+        return page(matches, inStock, page, size);
+    }
+
+    //loads rows batch by batch until the page is full, stock is checked on the rows themselves
+    private List<ProductModel> page(List<Long> ids, boolean inStock, int page, int size) {
+        long skip = (long) page * size;
+        if (!inStock) {
+            int from = (int) Math.min(skip, ids.size());
+            return fetch(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        List<ProductModel> result = new ArrayList<>(size);
+        for (int from = 0; from < ids.size() && result.size() < size; from += FETCH_BATCH) {
+            for (ProductModel product : fetch(ids.subList(from, Math.min(from + FETCH_BATCH, ids.size())))) {
+                if (product.getQuantity() == null || product.getQuantity() <= 0) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else if (result.size() < size) {
+                    result.add(product);
+                }
+            }
+        }
+        return result;
+    }
+
+    //primary key lookup keeping the order of the ids, hot products carry the stock of their stripes.
+    //a large page is looked up FETCH_BATCH ids at a time
+    private List<ProductModel> fetch(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductModel> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FETCH_BATCH) {
+            for (ProductModel product : productRepository.findAllById(ids.subList(from, Math.min(from + FETCH_BATCH, ids.size())))) {
+                byId.put(product.getId(), product);
+            }
+        }
+        List<ProductModel> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductModel product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return productService.withCurrentStock(products);
+    }
+
+    //contains match like the name index, lower case with the like wildcards escaped
+    private static String likePattern(String name) {
+        String escaped = name.toLowerCase(Locale.ROOT).replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private Comparator<Long> comparator(String sort) {
+        Comparator<Long> byId = Comparator.naturalOrder();
+        switch (sort == null ? "id" : sort) {
+            case "id":
+                return byId;
+            case "price_asc":
+                return Comparator.comparing((Long id) -> priceIndex.price(id), Comparator.nullsLast(Comparator.<Double>naturalOrder())).thenComparing(byId);
+            case "price_desc":
+                return Comparator.comparing((Long id) -> priceIndex.price(id), Comparator.nullsLast(Comparator.<Double>reverseOrder())).thenComparing(byId);
+            case "name":
+                return Comparator.comparing((Long id) -> nameIndex.name(id), Comparator.nullsLast(Comparator.<String>naturalOrder())).thenComparing(byId);
+            default:
+                throw new ProductException("Unknown sort: " + sort + ", expected one of " + Arrays.asList("id", "price_asc", "price_desc", "name"));
+        }
+    }
+
+    private Sort dbSort(String sort) {
+        switch (sort == null ? "id" : sort) {
+            case "price_asc":
+                return Sort.by("price").ascending().and(Sort.by("id"));
+            case "price_desc":
+                return Sort.by("price").descending().and(Sort.by("id"));
+            case "name":
+                return Sort.by("name").and(Sort.by("id"));
+            default:
+                return Sort.by("id");
+        }
+    }
+}
@@ -1,56 +1,454 @@
 package com.microservice.product_service.service;
 
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.cache.ProductVersionTable;
 import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.feed.ProductChangeFeed;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.index.ProductBestsellerIndex;
+import com.microservice.product_service.index.ProductFacetIndex;
+import com.microservice.product_service.index.ProductFuzzyIndex;
+import com.microservice.product_service.index.ProductNameIndex;
+import com.microservice.product_service.index.ProductPriceIndex;
+import com.microservice.product_service.index.ProductRelatedIndex;
+import com.microservice.product_service.index.ProductSuggestIndex;
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.ProductBestseller;
+import com.microservice.product_service.model.ProductCacheStats;
+import com.microservice.product_service.model.ProductDelta;
+import com.microservice.product_service.model.ProductFacets;
 import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockPrice;
+import com.microservice.product_service.model.ProductStockSnapshot;
+import com.microservice.product_service.model.ProductSuggestion;
+import com.microservice.product_service.model.ProductTombstone;
+import com.microservice.product_service.model.RelatedProduct;
 import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.repository.ProductTombstoneRepository;
+import com.microservice.product_service.stock.JournalStockEngine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    //ids per primary key lookup, a broad price range or name search would otherwise be one huge IN list
+    private static final int ID_CHUNK = 1000;
 
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ProductChangeSequence changeSequence;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductNameIndex nameIndex;
+
+    @Autowired
+    private ProductPriceIndex priceIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private ProductFuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private ProductBestsellerIndex bestsellerIndex;
+
+    @Autowired
+    private ProductRelatedIndex relatedIndex;
+
+    @Autowired
+    private ProductVersionTable versionTable;
+
+    @Autowired
+    private ProductChangeFeed changeFeed;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    //only present with product.stock.engine=journal, then it owns the stock of every product
+    @Autowired(required = false)
+    private JournalStockEngine stockEngine;
+
+    //in-memory indexes kept in sync with every write
+    @Autowired(required = false)
+    private List<ProductChangeListener> changeListeners = new ArrayList<>();
+
+    //load the catalog into the in-memory indexes, done by the startup warm-up
+    public void loadIndexes() {
+        List<ProductModel> products = productRepository.findAll();
+        logger.info("Loading {} products into {} indexes", products.size(), changeListeners.size());
+        changeListeners.forEach(listener -> listener.productsLoaded(products));
+    }
     
+    //replays writes made on another instance into the local caches and indexes
+    public void applyPeerChanges(long[] saved, long[] deleted, Map<Long, Integer> reserved, List<OrderBasket> orders) {
+        for (ProductModel product : productRepository.findAllById(Arrays.stream(saved).boxed().toList())) {
+            changeListeners.forEach(listener -> listener.productSaved(product));
+        }
+        for (long id : deleted) {
+            changeListeners.forEach(listener -> listener.productDeleted(id));
+        }
+        reserved.forEach((id, quantity) -> changeListeners.forEach(listener -> listener.stockReserved(id, quantity)));
+        for (OrderBasket order : orders) {
+            changeListeners.forEach(listener -> listener.orderRecorded(order));
+        }
+    }
+
+    //rows written by the bulk import bypassed the service, the listeners hear about them like single saves
+    public void productsImported(List<ProductModel> products) {
+        for (ProductModel product : products) {
+            publish(listener -> listener.productSaved(product));
+        }
+    }
+
+    //replays every change committed after since like the writes of a peer, for the ones
+    //this instance was not sent. returns the sequence it got up to
+    public long replayChanges(long since) {
+        ProductDelta delta;
+        do {
+            delta = getDelta(since, 1000);
+            long[] saved = delta.getChanged().stream().mapToLong(ProductModel::getId).toArray();
+            long[] deleted = delta.getDeleted().stream().mapToLong(Long::longValue).toArray();
+            applyPeerChanges(saved, deleted, Map.of(), List.of());
+            since = delta.getNextSince();
+        } while (delta.isHasMore());
+        return since;
+    }
+
+    //listeners hear about a write only once it is committed, so they see the flushed version and
+    //last modified time and nothing reaches the caches, the feed or the peers when it rolls back
+    private void publish(Consumer<ProductChangeListener> event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeListeners.forEach(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeListeners.forEach(event);
+            }
+        });
+    }
+
+    //number older rows and make sure new change sequences start above everything stored
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void initChangeSequence() {
+        int backfilled = productRepository.backfillChangeSeq();
+        if (backfilled > 0) {
+            logger.info("Backfilled change sequence of {} products", backfilled);
+        }
+        Long products = productRepository.maxChangeSeq();
+        Long tombstones = tombstoneRepository.maxChangeSeq();
+        changeSequence.seed(Math.max(products != null ? products : 0L, tombstones != null ? tombstones : 0L));
+    }
+
     //add products
+    @Transactional
     public ProductModel addProduct(ProductModel product) {
         logger.info("Adding product: {}", product.getName());
-        if (product.getQuantity() < 0) {
+        validateProduct(product);
+        product.setChangeSeq(changeSequence.next());
+        ProductModel saved = productRepository.save(product);
+        publish(listener -> listener.productSaved(saved));
+        return saved;
+    }
+    
+    //checks shared by addProduct and the bulk import
+    public void validateProduct(ProductModel product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new ProductException("Name is required");
+        }
+        if (product.getPrice() == null || product.getPrice() < 0) {
+            throw new ProductException("Price cannot be negative");
+        }
+        //NaN passes the check above, and neither it nor Infinity has a place in the price index
+        if (!Double.isFinite(product.getPrice())) {
+            throw new ProductException("Price must be a finite number");
+        }
+        if (product.getQuantity() == null || product.getQuantity() < 0) {
             throw new ProductException("Quantity cannot be negative");
         }
-        return productRepository.save(product);
     }
-    
+
     //get all products
     public List<ProductModel> getAllProducts() {
         logger.info("Fetching all products");
-        return productRepository.findAll();
+        return withCurrentStock(productRepository.findAll());
     }
     
-    //get product by id 
+    //get one page of products in id order
+    public List<ProductModel> getAllProducts(int page, int size) {
+        logger.info("Fetching page {} (size {}) of all products", page, size);
+        if (page < 0 || size <= 0) {
+            throw new ProductException("Page must not be negative and size must be positive");
+        }
+        return withCurrentStock(productRepository.findAll(PageRequest.of(page, size, Sort.by("id"))).getContent());
+    }
+
+    //get the next products after a cursor id, cost does not grow with the page number
+    public List<ProductModel> getProductsAfter(Long afterId, int size) {
+        logger.info("Fetching {} products after id: {}", size, afterId);
+        if (size <= 0) {
+            throw new ProductException("Page must not be negative and size must be positive");
+        }
+        return withCurrentStock(productRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size)));
+    }
+
+    //walk the whole catalog through a database cursor, each row is detached once handed
+    //over so the persistence context does not grow with the catalog
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductModel> consumer) {
+        logger.info("Streaming all products");
+        try (Stream<ProductModel> products = productRepository.streamAll()) {
+            forEachDetached(products, consumer);
+        }
+    }
+
+    //catalog export, optionally only the products changed since a point in time
+    @Transactional(readOnly = true)
+    public void exportProducts(Instant since, Consumer<ProductModel> consumer) {
+        logger.info("Exporting products modified since: {}", since);
+        try (Stream<ProductModel> products = since != null
+                ? productRepository.streamModifiedSince(since)
+                : productRepository.streamAll()) {
+            forEachDetached(products, consumer);
+        }
+    }
+
+    private void forEachDetached(Stream<ProductModel> products, Consumer<ProductModel> consumer) {
+        products.forEach(product -> {
+            consumer.accept(withCurrentStock(product));
+            entityManager.detach(product);
+        });
+    }
+
+    //push feed of product changes, resuming after the given sequence when one is passed
+    public SseEmitter subscribeToChanges(String since) {
+        logger.info("New change feed subscriber after event: {}", since);
+        return changeFeed.subscribe(since);
+    }
+
+    //products changed and deleted after a change sequence, oldest change first
+    public ProductDelta getDelta(long since, int limit) {
+        logger.info("Fetching up to {} product changes after sequence: {}", limit, since);
+        if (limit <= 0 || limit > 1000) {
+            throw new ProductException("Limit must be between 1 and 1000");
+        }
+        //both sides are read with the same keyset, then merged in sequence order. nothing above the
+        //watermark is served, a write still in flight there may commit below a sequence already returned
+        long watermark = changeSequence.watermark();
+        PageRequest page = PageRequest.of(0, limit);
+        List<ProductModel> changed = productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(since, watermark, page);
+        List<ProductTombstone> deleted = tombstoneRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(since, watermark, page);
+
+        ProductDelta delta = new ProductDelta();
+        long nextSince = since;
+        int c = 0;
+        int d = 0;
+        while (c + d < limit && (c < changed.size() || d < deleted.size())) {
+            if (d >= deleted.size() || (c < changed.size() && changed.get(c).getChangeSeq() < deleted.get(d).getChangeSeq())) {
+                nextSince = changed.get(c).getChangeSeq();
+                delta.getChanged().add(withCurrentStock(changed.get(c++)));
+            } else {
+                nextSince = deleted.get(d).getChangeSeq();
+                delta.getDeleted().add(deleted.get(d++).getProductId());
+            }
+        }
+        delta.setNextSince(nextSince);
+        //a full page from either side may be followed by more rows
+        delta.setHasMore(c < changed.size() || d < deleted.size() || changed.size() == limit || deleted.size() == limit);
+        return delta;
+    }
+
+    //version of a product for conditional GETs, null when it has not been seen yet
+    public ProductVersionTable.ProductVersion getKnownVersion(Long id) {
+        return versionTable.get(id);
+    }
+
+    //get product by id and remember its version
+    public ProductModel getProductByIdWithVersion(Long id) {
+        ProductModel product = getProductById(id);
+        versionTable.record(product);
+        return product;
+    }
+
+    //get product by id, read through the product cache
     public ProductModel getProductById(Long id) {
         logger.info("Fetching product by id: {}", id);
-        return productRepository.findById(id).orElseThrow(() -> new ProductException("Product not found with id: " + id));
+        ProductModel product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new ProductException("Product not found with id: " + id);
+        }
+        if (stockEngine != null) {
+            Integer quantity = stockEngine.quantity(id);
+            return quantity == null ? product : withQuantity(product, quantity);
+        }
+        if (hotStockService.isHot(id)) {
+            return withQuantity(product, product.getQuantity() + hotStockService.totalQuantity(id));
+        }
+        return product;
+    }
+
+    //hit/miss/eviction counters of the product cache
+    public ProductCacheStats getCacheStats() {
+        return productCache.stats();
+    }
+    
+    //get only price and stock of a product, used by the order service
+    public ProductStockPrice getStockPrice(Long id) {
+        logger.info("Fetching stock and price for product: {}", id);
+        ProductStockPrice stockPrice = productRepository.findStockPriceById(id)
+                .orElseThrow(() -> new ProductException("Product not found with id: " + id));
+        if (stockEngine != null) {
+            Integer quantity = stockEngine.quantity(id);
+            return quantity == null ? stockPrice : new ProductStockSnapshot(id, stockPrice.getPrice(), quantity);
+        }
+        if (hotStockService.isHot(id)) {
+            return new ProductStockSnapshot(id, stockPrice.getPrice(), stockPrice.getQuantity() + hotStockService.totalQuantity(id));
+        }
+        return stockPrice;
+    }
+
+    //atomically take quantity units out of stock
+    public ProductStockPrice reserveStock(Long id, Integer quantity) {
+        logger.info("Reserving {} units of product: {}", quantity, id);
+        if (quantity == null || quantity <= 0) {
+            throw new ProductException("Quantity must be positive");
+        }
+        //hot products skip their own row, which only holds stock left from before hot mode
+        boolean reserved = stockEngine != null ? stockEngine.reserve(id, quantity) : hotStockService.isHot(id)
+                ? hotStockService.reserve(id, quantity)
+                : changeSequence.write(seq -> productRepository.reserveStock(id, quantity, Instant.now(), seq)) == 1
+                        || hotStockService.reserve(id, quantity);
+        if (!reserved) {
+            if (!productRepository.existsById(id)) {
+                throw new ProductException("Product not found with id: " + id);
+            }
+            throw new ProductException("Insufficient quantity for product: " + id);
+        }
+        publish(listener -> listener.stockReserved(id, quantity));
+        return getStockPrice(id);
+    }
+
+    //puts back quantity units of an earlier reservation, when the order it was for failed
+    public ProductStockPrice releaseStock(Long id, Integer quantity) {
+        logger.info("Releasing {} units of product: {}", quantity, id);
+        if (quantity == null || quantity <= 0) {
+            throw new ProductException("Quantity must be positive");
+        }
+        //units of a hot product go back into a stripe, where reservations look for them
+        boolean released = stockEngine != null ? stockEngine.release(id, quantity) : hotStockService.isHot(id)
+                ? hotStockService.release(id, quantity)
+                : changeSequence.write(seq -> productRepository.releaseStock(id, quantity, Instant.now(), seq)) == 1;
+        if (!released) {
+            throw new ProductException("Product not found with id: " + id);
+        }
+        publish(listener -> listener.stockReserved(id, -quantity));
+        return getStockPrice(id);
     }
     
+    //split the stock of a product over stripe rows so concurrent reservations do not queue on one row
+    @Transactional
+    public ProductStockPrice enableHotStock(Long id, int stripes) {
+        logger.info("Enabling hot stock mode with {} stripes for product: {}", stripes, id);
+        if (stripes < 2 || stripes > 64) {
+            throw new ProductException("Stripes must be between 2 and 64");
+        }
+        if (stockEngine != null) {
+            throw new ProductException("Hot stock mode is not available with the journal stock engine");
+        }
+        ProductModel product = productRepository.lockById(id).orElseThrow(() -> new ProductException("Product not found with id: " + id));
+        if (hotStockService.isHot(id)) {
+            throw new ProductException("Product is already in hot stock mode: " + id);
+        }
+        hotStockService.split(id, product.getQuantity(), stripes);
+        int total = product.getQuantity();
+        product.setQuantity(0);
+        product.setChangeSeq(changeSequence.next());
+        ProductModel saved = productRepository.save(product);
+        publish(listener -> listener.productSaved(saved));
+        return new ProductStockSnapshot(id, saved.getPrice(), total);
+    }
+
+    //move the stock left in the stripes back into the product row
+    @Transactional
+    public ProductStockPrice disableHotStock(Long id) {
+        logger.info("Disabling hot stock mode for product: {}", id);
+        ProductModel product = productRepository.lockById(id).orElseThrow(() -> new ProductException("Product not found with id: " + id));
+        if (!hotStockService.isHot(id)) {
+            throw new ProductException("Product is not in hot stock mode: " + id);
+        }
+        product.setQuantity(product.getQuantity() + hotStockService.merge(id));
+        product.setChangeSeq(changeSequence.next());
+        ProductModel saved = productRepository.save(product);
+        publish(listener -> listener.productSaved(saved));
+        return new ProductStockSnapshot(id, saved.getPrice(), saved.getQuantity());
+    }
+
     // update product by id
+    @Transactional
     public ProductModel updateProduct(Long id, ProductModel updated) { 
         logger.info("Updating product with id: {}", id);
-        ProductModel existing = getProductById(id);  
+        //load from the database, the cached instance is shared with readers and must not be edited in place.
+        //locked so hot mode cannot be switched on or off under the update
+        ProductModel existing = productRepository.lockById(id).orElseThrow(() -> new ProductException("Product not found with id: " + id));
         existing.setName(updated.getName());
         existing.setDescription(updated.getDescription());
         existing.setCategory(updated.getCategory());
         existing.setPrice(updated.getPrice());
         existing.setQuantity(updated.getQuantity());
-        return productRepository.save(existing);
+        existing.setChangeSeq(changeSequence.next());
+        if (hotStockService.isHot(id)) {
+            //the new quantity replaces the stock in the stripes
+            hotStockService.resplit(id, existing.getQuantity());
+            existing.setQuantity(0);
+        }
+        ProductModel saved = productRepository.save(existing);
+        publish(listener -> listener.productSaved(saved));
+        return saved;
     }
     
-    //delete product by id
+    //delete product by id, the tombstone is written in the same transaction
+    @Transactional
     public void deleteProduct(Long id) {
         logger.info("Deleting product with id: {}", id);
 
@@ -59,24 +457,176 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        tombstoneRepository.save(new ProductTombstone(id, changeSequence.next(), Instant.now()));
+        publish(listener -> listener.productDeleted(id));
         logger.info("Product deleted successfully with id: {}", id);
     }
 
-    //for getting the products by price range
+    //for getting the products by price range, in price order once the price index is loaded
     public List<ProductModel> getProductsByPriceRange(Double minPrice, Double maxPrice) {
         logger.info("Fetching products in price range: {}-{}", minPrice, maxPrice);
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+        if (!priceIndex.isLoaded()) {
+            return withCurrentStock(productRepository.findByPriceBetween(minPrice, maxPrice));
+        }
+        return findAllByIds(priceIndex.range(minPrice, maxPrice, 0, Integer.MAX_VALUE));
+    }
+
+    //one page of a price range, cheapest first
+    public List<ProductModel> getProductsByPriceRange(Double minPrice, Double maxPrice, int page, int size) {
+        logger.info("Fetching page {} (size {}) of products in price range: {}-{}", page, size, minPrice, maxPrice);
+        if (page < 0 || size <= 0) {
+            throw new ProductException("Page must not be negative and size must be positive");
+        }
+        if (!priceIndex.isLoaded()) {
+            return withCurrentStock(productRepository.findByPriceBetween(minPrice, maxPrice,
+                    PageRequest.of(page, size, Sort.by("price").and(Sort.by("id")))));
+        }
+        return findAllByIds(priceIndex.range(minPrice, maxPrice, (int) Math.min((long) page * size, Integer.MAX_VALUE), size));
+    }
+
+    //number of products in a price range
+    public long countProductsByPriceRange(Double minPrice, Double maxPrice) {
+        logger.info("Counting products in price range: {}-{}", minPrice, maxPrice);
+        if (!priceIndex.isLoaded()) {
+            return productRepository.countByPriceBetween(minPrice, maxPrice);
+        }
+        return priceIndex.count(minPrice, maxPrice);
     }
     
-    //for getting the products by name
+    //for getting the products by name, answered by the trigram index once it is loaded
     public List<ProductModel> getProductsByName(String name) {
         logger.info("Fetching products by name: {}", name);
-        return productRepository.findByNameContaining(name);
+        if (!nameIndex.isLoaded()) {
+            return withCurrentStock(productRepository.findByNameContaining(name));
+        }
+        return findAllByIds(nameIndex.search(name));
+    }
+
+    //typo tolerant name search, closest names first and the better sellers first among equals
+    public List<ProductModel> getProductsByNameFuzzy(String name, int limit) {
+        logger.info("Fetching products by fuzzy name: {}", name);
+        if (limit <= 0 || limit > 100) {
+            throw new ProductException("Limit must be between 1 and 100");
+        }
+        if (!fuzzyIndex.isLoaded()) {
+            return getProductsByName(name);
+        }
+        Map<Long, Integer> distances = fuzzyIndex.search(name);
+        long[] ids = distances.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<Long, Integer> e) -> e.getValue())
+                        .thenComparing(e -> -bestsellerIndex.score(e.getKey()))
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        return findAllByIds(ids);
+    }
+
+    //autocomplete for the search box, answered from memory only
+    public List<ProductSuggestion> suggestProducts(String prefix, int k) {
+        if (k <= 0 || k > 50) {
+            throw new ProductException("k must be between 1 and 50");
+        }
+        return suggestIndex.suggest(prefix, k);
+    }
+
+    //live top sellers of a category, or of the whole catalog when no category is given
+    public List<ProductBestseller> getBestsellers(String category, int k) {
+        if (k <= 0 || k > 100) {
+            throw new ProductException("k must be between 1 and 100");
+        }
+        return bestsellerIndex.top(category, k);
+    }
+
+    //products most often ordered together with a product, precomputed in the related index
+    public List<RelatedProduct> getRelatedProducts(Long id, int limit) {
+        if (limit <= 0 || limit > 100) {
+            throw new ProductException("limit must be between 1 and 100");
+        }
+        return relatedIndex.related(id, limit);
+    }
+
+    //called by the order service for every placed order
+    public void recordOrder(OrderBasket order) {
+        if (order.getProductIds() == null || order.getProductIds().stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new ProductException("Product ids must be positive");
+        }
+        //counted by the related products index, and forwarded to the other instances when peers are enabled
+        publish(listener -> listener.orderRecorded(order));
+    }
+
+    //facet counts per category and price bucket, optionally filtered by either
+    public ProductFacets getFacets(String category, String priceBucket) {
+        logger.info("Fetching facets for category: {} and price bucket: {}", category, priceBucket);
+        //the index is only loaded at startup, until then the database counts. loading it here would read
+        //the whole catalog per request and could overwrite a write made while it was read
+        if (!facetIndex.isLoaded()) {
+            return facetIndex.facets(category, priceBucket, productRepository.countByCategory(),
+                    productRepository::countByCategoryInPriceRange);
+        }
+        return facetIndex.facets(category, priceBucket);
+    }
+
+    //detached copy of a product with another quantity, the original may be shared through the cache.
+    //the row may not hold the current stock: the journal engine keeps it in memory and writes it back
+    //later, hot products keep it in their stripes. lists show it on copies like getProductById
+    public List<ProductModel> withCurrentStock(List<ProductModel> products) {
+        if (stockEngine == null && !hotStockService.hasHotProducts()) {
+            return products;
+        }
+        List<ProductModel> result = new ArrayList<>(products.size());
+        for (ProductModel product : products) {
+            result.add(withCurrentStock(product));
+        }
+        return result;
+    }
+
+    private ProductModel withCurrentStock(ProductModel product) {
+        if (stockEngine != null) {
+            Integer quantity = stockEngine.quantity(product.getId());
+            return quantity == null || quantity.equals(product.getQuantity()) ? product : withQuantity(product, quantity);
+        }
+        //only the stripes known to this instance, a table lookup per listed product would cost more than the list
+        if (hotStockService.stripeCount(product.getId()) == 0) {
+            return product;
+        }
+        return withQuantity(product, product.getQuantity() + hotStockService.totalQuantity(product.getId()));
+    }
+
+    private ProductModel withQuantity(ProductModel product, int quantity) {
+        ProductModel copy = new ProductModel(product.getId(), product.getName(), product.getDescription(),
+                product.getCategory(), product.getPrice(), quantity);
+        copy.setVersion(product.getVersion());
+        copy.setLastModified(product.getLastModified());
+        copy.setChangeSeq(product.getChangeSeq());
+        return copy;
+    }
+
+    //primary key lookup of index hits in chunks of ID_CHUNK, returned in the order of the ids
+    private List<ProductModel> findAllByIds(long[] ids) {
+        List<ProductModel> products = new ArrayList<>(ids.length);
+        if (ids.length == 0) {
+            return products;
+        }
+        Map<Long, ProductModel> byId = new HashMap<>();
+        for (int from = 0; from < ids.length; from += ID_CHUNK) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(from + ID_CHUNK, ids.length)).boxed().toList();
+            for (ProductModel product : productRepository.findAllById(chunk)) {
+                byId.put(product.getId(), product);
+            }
+        }
+        for (long id : ids) {
+            ProductModel product = byId.get(id);
+            if (product != null) {
+                products.add(withCurrentStock(product));
+            }
+        }
+        return products;
     }
     
     // For getting the products by category
     public List<ProductModel> getProductsByCategory(String category) {
         logger.info("Fetching products by category: {}", category);
-        return productRepository.findByCategory(category);
+        return withCurrentStock(productRepository.findByCategory(category));
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.peer.PeerInvalidationBroadcaster;
+import com.microservice.product_service.repository.ProductRepository;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Startup warm-up. The instance registers with Eureka as STARTING (eureka.instance.initial-status),
+//so the gateway does not route to it yet. Once the context is ready the indexes and the most
+//recently sold products are loaded in parallel, optional synthetic requests run against the
+//local endpoints to get the JIT going, and only then the instance is switched to UP. The whole
+//phase is capped by product.warmup.timeout-seconds; the instance goes UP either way.
+//Peers only send invalidations to UP instances, so with product.peers.enabled the changes
+//committed since the warm-up started are replayed once the instance is UP, and again after
+//product.warmup.catch-up-delay-ms when every peer has fetched the new status from Eureka.
+@Component
+public class ProductWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(ProductWarmup.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired(required = false)
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Autowired
+    private ProductChangeSequence changeSequence;
+
+    @Autowired(required = false)
+    private PeerInvalidationBroadcaster broadcaster;
+
+    @Value("${product.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${product.warmup.hot-products:1000}")
+    private int hotProducts = 1000;
+
+    @Value("${product.warmup.synthetic-requests:0}")
+    private int syntheticRequests = 0;
+
+    @Value("${product.warmup.threads:4}")
+    private int threads = 4;
+
+    @Value("${product.warmup.timeout-seconds:60}")
+    private long timeoutSeconds = 60;
+
+    //above the registry fetch interval of the peers (eureka.client.registry-fetch-interval-seconds)
+    @Value("${product.warmup.catch-up-delay-ms:35000}")
+    private long catchUpDelayMillis = 35000;
+
+    //after the other ready listeners, e.g. the change sequence and the hot stock stripes, which have lower orders
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(100)
+    public void warmUp() {
+        long start = System.nanoTime();
+        //everything committed after this is replayed once peers can see the instance
+        long since = changeSequence.watermark();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, threads));
+        try {
+            Future<?> indexes = executor.submit(productService::loadIndexes);
+            if (enabled) {
+                Future<List<ProductModel>> hottest = executor.submit(() ->
+                        productRepository.findAllByOrderByLastModifiedDesc(PageRequest.of(0, hotProducts)));
+                //loading the indexes clears the cache, so fill it only after both are done
+                indexes.get(remaining(deadline), TimeUnit.NANOSECONDS);
+                List<ProductModel> products = hottest.get(remaining(deadline), TimeUnit.NANOSECONDS);
+                productCache.preload(products);
+                if (syntheticRequests > 0) {
+                    sendSyntheticRequests(executor, products, deadline);
+                }
+            } else {
+                indexes.get(remaining(deadline), TimeUnit.NANOSECONDS);
+            }
+            logger.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            logger.warn("Warm-up did not finish within {} s, taking traffic anyway", timeoutSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Warm-up failed, taking traffic anyway", e);
+        } finally {
+            executor.shutdownNow();
+            markUp();
+            catchUp(since);
+        }
+    }
+
+    private void catchUp(long since) {
+        if (broadcaster == null) {
+            return;
+        }
+        replay(since);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "product-warmup-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(() -> replay(since), catchUpDelayMillis, TimeUnit.MILLISECONDS);
+        //the delayed replay still runs, the thread ends after it
+        scheduler.shutdown();
+    }
+
+    //applied like peer changes, so they are not sent back out
+    private void replay(long since) {
+        try {
+            broadcaster.applyingPeerChanges(() -> productService.replayChanges(since));
+        } catch (RuntimeException e) {
+            logger.warn("Could not replay the changes made during warm-up", e);
+        }
+    }
+
+    //spreads GETs for the preloaded products over the pool until the count or the deadline is reached
+    private void sendSyntheticRequests(ExecutorService executor, List<ProductModel> products, long deadline) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || products.isEmpty()) {
+            return;
+        }
+        RestClient client = RestClient.create();
+        String base = "http://localhost:" + port;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < syntheticRequests && System.nanoTime() < deadline) {
+                    try {
+                        client.get().uri(syntheticUri(base, products.get(i % products.size()), i)).retrieve().toBodilessEntity();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        }
+        logger.info("Sent {} synthetic warm-up requests, {} failed", Math.min(next.get(), syntheticRequests), failed.get());
+    }
+
+    //cycles through the read endpoints the gateway sends most traffic to
+    private URI syntheticUri(String base, ProductModel product, int i) {
+        String name = product.getName() != null && !product.getName().isBlank() ? product.getName().trim() : "a";
+        String word = name.split("\\s+")[0];
+        double price = product.getPrice() != null ? product.getPrice() : 0;
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(base);
+        switch (i % 5) {
+            case 0 -> uri.path("/products/{id}");
+            case 1 -> uri.path("/products/{id}/stock-price");
+            case 2 -> uri.path("/products/filter/price").queryParam("min", 0).queryParam("max", price);
+            case 3 -> uri.path("/products/filter/name").queryParam("name", word);
+            default -> uri.path("/products/suggest").queryParam("prefix", word.substring(0, Math.min(2, word.length())));
+        }
+        return uri.buildAndExpand(product.getId()).encode().toUri();
+    }
+
+    private void markUp() {
+        if (applicationInfoManager != null) {
+            applicationInfoManager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+            logger.info("Instance marked UP in Eureka");
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
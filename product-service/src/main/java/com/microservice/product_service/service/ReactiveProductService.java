@@ -0,0 +1,70 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.repository.ReactiveProductRepository;
+import com.microservice.product_service.stock.JournalStockEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Read side of the catalog on R2DBC, next to the blocking ProductService. Nothing here
+//waits on a thread: rows come from the reactive repository and the only other state
+//consulted is the in-memory stock of the journal engine when that is enabled.
+@Service
+@ConditionalOnProperty(name = "product.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveProductService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductService.class);
+
+    @Autowired
+    private ReactiveProductRepository reactiveProductRepository;
+
+    //set with product.stock.engine=journal, its in-memory stock is newer than the row
+    @Autowired(required = false)
+    private JournalStockEngine stockEngine;
+
+    public Flux<ProductModel> getAllProducts() {
+        logger.info("Streaming all products");
+        return reactiveProductRepository.findAll().map(this::withCurrentStock);
+    }
+
+    public Mono<ProductModel> getProductById(Long id) {
+        logger.info("Fetching product by id: {}", id);
+        return reactiveProductRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductException("Product not found with id: " + id)))
+                .map(this::withCurrentStock);
+    }
+
+    public Flux<ProductModel> getProductsByPriceRange(Double minPrice, Double maxPrice) {
+        logger.info("Streaming products in price range: {}-{}", minPrice, maxPrice);
+        if (minPrice > maxPrice) {
+            return Flux.error(new ProductException("Minimum price must not be above maximum price"));
+        }
+        return reactiveProductRepository.findByPriceBetween(minPrice, maxPrice).map(this::withCurrentStock);
+    }
+
+    public Flux<ProductModel> getProductsByName(String name) {
+        logger.info("Streaming products by name: {}", name);
+        return reactiveProductRepository.findByNameContaining(name).map(this::withCurrentStock);
+    }
+
+    public Flux<ProductModel> getProductsByCategory(String category) {
+        logger.info("Streaming products by category: {}", category);
+        return reactiveProductRepository.findByCategory(category).map(this::withCurrentStock);
+    }
+
+    //rows are fresh objects per query, so the quantity can be set in place
+    private ProductModel withCurrentStock(ProductModel product) {
+        if (stockEngine != null) {
+            Integer quantity = stockEngine.quantity(product.getId());
+            if (quantity != null) {
+                product.setQuantity(quantity);
+            }
+        }
+        return product;
+    }
+}
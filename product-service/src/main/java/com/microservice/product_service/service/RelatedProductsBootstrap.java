@@ -0,0 +1,76 @@
+package com.microservice.product_service.service;
+
+import com.microservice.product_service.client.OrderHistoryClient;
+import com.microservice.product_service.index.ProductRelatedIndex;
+import com.microservice.product_service.model.OrderBasket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+//Counts the existing order history into the related products index once after startup.
+//Runs in the background so the service does not wait for the order service; new orders
+//are counted as they arrive in the meantime. The history is read up to the last order id
+//at its start, orders counted live before that are skipped so none is counted twice.
+@Component
+public class RelatedProductsBootstrap {
+    private static final Logger logger = LoggerFactory.getLogger(RelatedProductsBootstrap.class);
+
+    @Autowired
+    private OrderHistoryClient orderHistoryClient;
+
+    @Autowired
+    private ProductRelatedIndex relatedIndex;
+
+    @Value("${product.related.bootstrap:true}")
+    private boolean enabled = true;
+
+    @Value("${product.related.bootstrap-page-size:5000}")
+    private int pageSize = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(30)
+    public void start() {
+        if (!enabled) {
+            //nothing is read, stop remembering the orders counted live
+            relatedIndex.beginBootstrap(0);
+            return;
+        }
+        Thread thread = new Thread(this::load, "related-products-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void load() {
+        List<long[]> baskets = new ArrayList<>();
+        long afterId = 0;
+        try {
+            long lastId = orderHistoryClient.getLastOrderId();
+            Set<Long> counted = relatedIndex.beginBootstrap(lastId);
+            List<OrderBasket> page;
+            do {
+                page = orderHistoryClient.getBaskets(afterId, pageSize);
+                for (OrderBasket basket : page) {
+                    afterId = basket.getOrderId();
+                    if (afterId > lastId || counted.contains(afterId)) {
+                        continue;
+                    }
+                    baskets.add(basket.getProductIds().stream().mapToLong(Long::longValue).toArray());
+                }
+            } while (page.size() == pageSize && afterId < lastId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the order history, related products only count new orders", e);
+            return;
+        }
+        relatedIndex.bootstrap(baskets);
+        logger.info("Counted {} past orders into the related products index", baskets.size());
+    }
+}
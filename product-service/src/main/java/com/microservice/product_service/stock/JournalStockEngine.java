@@ -0,0 +1,331 @@
+package com.microservice.product_service.stock;
+
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.cache.ProductVersionTable;
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.service.ProductChangeListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Optional inventory engine (product.stock.engine=journal). The stock of every product lives in
+//memory and is the source of truth; each change is made durable in the local StockJournal
+//before it is acknowledged, and a background task writes the net change per product to the
+//product table in batches, together with the journal lsn it covers. On startup every record
+//after that lsn is replayed into the table before the stock is loaded again.
+//The stock is only correct while this is the one instance taking reservations, so it refuses
+//to start next to peers or other product-service instances in the registry.
+@Component
+@ConditionalOnProperty(name = "product.stock.engine", havingValue = "journal")
+public class JournalStockEngine implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(JournalStockEngine.class);
+
+    private static final String TAKE_SQL = "update product_model set quantity = quantity - ?, version = version + 1, "
+            + "last_modified = ?, change_seq = ? where id = ?";
+    private static final String SET_SQL = "update product_model set quantity = ?, version = version + 1, "
+            + "last_modified = ?, change_seq = ? where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductChangeSequence changeSequence;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductVersionTable versionTable;
+
+    @Autowired(required = false)
+    private DiscoveryClient discoveryClient;
+
+    @Autowired(required = false)
+    private Registration registration;
+
+    @Value("${spring.application.name:product-service}")
+    private String serviceId = "product-service";
+
+    @Value("${product.peers.enabled:false}")
+    private boolean peersEnabled;
+
+    @Value("${product.stock.journal-file:./data/stock.journal}")
+    private String journalFile = "./data/stock.journal";
+
+    @Value("${product.stock.flush-interval-ms:1000}")
+    private long flushIntervalMillis = 1000;
+
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final Map<Long, Change> pending = new HashMap<>();  // net change per product not yet in the table
+    private final Object pendingLock = new Object();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-journal-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long pendingLsn;
+    private StockJournal journal;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(20)
+    public void start() throws IOException {
+        checkSingleInstance();
+        Path path = Path.of(journalFile);
+        long checkpoint = readCheckpoint();
+        long lastLsn = checkpoint;
+        Map<Long, Change> replay = new HashMap<>();
+        for (StockJournal.Entry entry : StockJournal.read(path)) {
+            if (entry.lsn() > checkpoint) {
+                replay.merge(entry.productId(), Change.of(entry), Change::then);
+                lastLsn = entry.lsn();
+            }
+        }
+        if (!replay.isEmpty()) {
+            writeToTable(replay, lastLsn);
+            logger.info("Replayed stock journal changes of {} products up to lsn {}", replay.size(), lastLsn);
+        }
+        //everything in the old file is in the table now, the new journal starts empty
+        journal = new StockJournal(path, lastLsn, this::journaled);
+        pendingLsn = lastLsn;
+        jdbcTemplate.query("select id, quantity from product_model",
+                rs -> { stock.put(rs.getLong(1), new AtomicInteger(rs.getInt(2))); });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        ready = true;
+        logger.info("Journal stock engine started with {} products", stock.size());
+    }
+
+    //current stock of a product, null when unknown
+    public Integer quantity(Long productId) {
+        AtomicInteger quantity = stock.get(productId);
+        return quantity == null ? null : quantity.get();
+    }
+
+    //takes the quantity out of memory and returns once the change is journaled, false when there is too little
+    public boolean reserve(Long productId, int quantity) {
+        checkReady();
+        AtomicInteger available = stock.get(productId);
+        if (available == null) {
+            return false;
+        }
+        int current;
+        do {
+            current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - quantity));
+        try {
+            journal.append(productId, false, quantity).join();
+            return true;
+        } catch (CompletionException e) {
+            //not durable, give the units back
+            available.addAndGet(quantity);
+            throw new ProductException("Could not record stock change for product: " + productId);
+        }
+    }
+
+    //gives the quantity back and returns once the change is journaled, false for an unknown product
+    public boolean release(Long productId, int quantity) {
+        checkReady();
+        AtomicInteger available = stock.get(productId);
+        if (available == null) {
+            return false;
+        }
+        available.addAndGet(quantity);
+        try {
+            //journaled as a negative take
+            journal.append(productId, false, -quantity).join();
+            return true;
+        } catch (CompletionException e) {
+            available.addAndGet(-quantity);
+            throw new ProductException("Could not record stock change for product: " + productId);
+        }
+    }
+
+    @Override
+    public void productsLoaded(List<ProductModel> products) {
+        //rows written around the engine, e.g. by a bulk import; known products keep their in-memory stock
+        for (ProductModel product : products) {
+            if (product.getQuantity() != null) {
+                stock.putIfAbsent(product.getId(), new AtomicInteger(product.getQuantity()));
+            }
+        }
+    }
+
+    //an explicit quantity from add or update replaces whatever is still pending for the product.
+    //ProductService only publishes once the write committed, a rolled back update never gets here
+    @Override
+    public void productSaved(ProductModel product) {
+        if (!ready || product.getQuantity() == null) {
+            return;
+        }
+        stock.computeIfAbsent(product.getId(), id -> new AtomicInteger()).set(product.getQuantity());
+        try {
+            journal.append(product.getId(), true, product.getQuantity()).join();
+        } catch (CompletionException e) {
+            logger.error("Could not journal the new quantity of product {}", product.getId(), e);
+        }
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        stock.remove(id);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        ready = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            //drains the writer, then the last changes go to the table while the file is kept for replay
+            journal.close();
+            flush();
+        }
+    }
+
+    //called by the journal writer after each fsync, before the waiting callers are released
+    private void journaled(List<StockJournal.Entry> entries) {
+        synchronized (pendingLock) {
+            for (StockJournal.Entry entry : entries) {
+                pending.merge(entry.productId(), Change.of(entry), Change::then);
+                pendingLsn = entry.lsn();
+            }
+        }
+    }
+
+    private void flush() {
+        Map<Long, Change> batch;
+        long lsn;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+            lsn = pendingLsn;
+        }
+        try {
+            writeToTable(batch, lsn);
+            //the rows got a new version, cached copies and known ETags are stale now
+            for (Long id : batch.keySet()) {
+                productCache.invalidate(id);
+                versionTable.remove(id);
+            }
+            if (ready) {
+                journal.truncateIfCaughtUp(lsn);
+            }
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Could not flush stock changes of {} products, retrying later", batch.size(), e);
+            synchronized (pendingLock) {
+                //the batch is older than anything journaled since
+                batch.forEach((id, older) -> pending.merge(id, older, (newer, old) -> old.then(newer)));
+            }
+        }
+    }
+
+    //net changes and the lsn they cover, in one transaction so a replay never applies a change twice
+    private void writeToTable(Map<Long, Change> changes, long lsn) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> takes = new ArrayList<>();
+        List<Object[]> sets = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            //change sequences taken in the transaction stay in flight until it completes
+            changes.forEach((id, change) -> (change.absolute() ? sets : takes)
+                    .add(new Object[]{change.value(), now, changeSequence.next(), id}));
+            jdbcTemplate.batchUpdate(SET_SQL, sets);
+            jdbcTemplate.batchUpdate(TAKE_SQL, takes);
+            jdbcTemplate.update("update stock_journal_checkpoint set lsn = ? where id = 1", lsn);
+        });
+    }
+
+    //every instance would sell the same units from its own memory
+    private void checkSingleInstance() {
+        if (peersEnabled) {
+            throw new IllegalStateException("product.stock.engine=journal keeps the stock of a single instance in memory, "
+                    + "it cannot run with product.peers.enabled=true");
+        }
+        if (discoveryClient == null) {
+            return;
+        }
+        String self = registration != null ? registration.getInstanceId() : null;
+        List<String> others = new ArrayList<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (instance.getInstanceId() == null || !instance.getInstanceId().equals(self)) {
+                others.add(String.valueOf(instance.getUri()));
+            }
+        }
+        if (!others.isEmpty()) {
+            throw new IllegalStateException("product.stock.engine=journal keeps the stock of a single instance in memory, "
+                    + "but other " + serviceId + " instances are registered: " + others);
+        }
+    }
+
+    private long readCheckpoint() {
+        List<Long> lsn = jdbcTemplate.query("select lsn from stock_journal_checkpoint where id = 1", (rs, row) -> rs.getLong(1));
+        if (lsn.isEmpty()) {
+            jdbcTemplate.update("insert into stock_journal_checkpoint (id, lsn) values (1, 0)");
+            return 0;
+        }
+        return lsn.get(0);
+    }
+
+    private void checkReady() {
+        if (!ready) {
+            throw new ProductException("Stock engine is not ready");
+        }
+    }
+
+    //net effect of one or more changes: set the quantity to value, or take value units
+    record Change(boolean absolute, int value) {
+
+        static Change of(StockJournal.Entry entry) {
+            return new Change(entry.absolute(), entry.value());
+        }
+
+        //this change followed by a newer one
+        Change then(Change newer) {
+            if (newer.absolute) {
+                return newer;
+            }
+            return absolute ? new Change(true, value - newer.value) : new Change(false, value + newer.value);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.microservice.product_service.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//Append-only file of stock changes with group commit. Callers queue a change and wait on
+//the returned future; one writer thread takes everything queued, writes it with a single
+//write and a single fsync, then completes all the futures of that batch together.
+//Record layout: lsn, product id, absolute flag, value, crc32 of the preceding 21 bytes.
+public class StockJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    static final int RECORD_SIZE = 25;
+    private static final int MAX_BATCH = 4096;
+
+    //one journaled change: either take value units (relative) or set the quantity to value (absolute)
+    public record Entry(long lsn, long productId, boolean absolute, int value) {}
+
+    private record Pending(long productId, boolean absolute, int value, CompletableFuture<Long> done) {}
+
+    private final FileChannel channel;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Consumer<List<Entry>> onDurable;
+    private final Thread writer;
+    private volatile boolean closed;
+    private long lastLsn;
+
+    //starts an empty journal, numbering after lastLsn; onDurable sees each batch after its fsync
+    public StockJournal(Path file, long lastLsn, Consumer<List<Entry>> onDurable) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.lastLsn = lastLsn;
+        this.onDurable = onDurable;
+        this.writer = new Thread(this::run, "stock-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    //every complete record of a journal file, a torn or corrupt tail is ignored
+    public static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+            Entry entry = new Entry(buffer.getLong(), buffer.getLong(), buffer.get() == 1, buffer.getInt());
+            if (buffer.getInt() != (int) crc.getValue()) {
+                logger.warn("Stock journal record at offset {} is corrupt, ignoring the rest of the file", start);
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    //queues a change, the future completes with its lsn once it is on disk
+    public CompletableFuture<Long> append(long productId, boolean absolute, int value) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        if (closed) {
+            done.completeExceptionally(new IOException("Stock journal is closed"));
+            return done;
+        }
+        queue.add(new Pending(productId, absolute, value, done));
+        return done;
+    }
+
+    //empties the file once everything in it has been flushed to the database
+    public synchronized void truncateIfCaughtUp(long flushedLsn) throws IOException {
+        if (flushedLsn == lastLsn && queue.isEmpty()) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Entry> entries = new ArrayList<>(batch.size());
+        synchronized (this) {
+            long position = 0;
+            try {
+                position = channel.position();
+                ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+                CRC32 crc = new CRC32();
+                long lsn = lastLsn;
+                for (Pending pending : batch) {
+                    int start = buffer.position();
+                    buffer.putLong(++lsn).putLong(pending.productId()).put((byte) (pending.absolute() ? 1 : 0)).putInt(pending.value());
+                    crc.reset();
+                    crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+                    buffer.putInt((int) crc.getValue());
+                    entries.add(new Entry(lsn, pending.productId(), pending.absolute(), pending.value()));
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                lastLsn = lsn;
+            } catch (IOException e) {
+                logger.error("Could not write {} stock journal records", batch.size(), e);
+                try {
+                    //drop the partial batch so the file stays a sequence of whole records
+                    channel.truncate(position);
+                    channel.position(position);
+                } catch (IOException ignored) {
+                    //the crc check skips a torn tail on replay
+                }
+                batch.forEach(pending -> pending.done().completeExceptionally(e));
+                return;
+            }
+        }
+        onDurable.accept(entries);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).done().complete(entries.get(i).lsn());
+        }
+    }
+}
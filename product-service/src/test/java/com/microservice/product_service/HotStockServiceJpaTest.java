@@ -0,0 +1,76 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductStockStripe;
+import com.microservice.product_service.repository.ProductStockStripeRepository;
+import com.microservice.product_service.service.HotStockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//runs the stripe writes against a real database, the unique (product_id, stripe) constraint
+//and the order Hibernate flushes in are not visible with a mocked repository
+@DataJpaTest
+@Import({HotStockService.class, ProductChangeSequence.class})
+class HotStockServiceJpaTest {
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductStockStripeRepository stripeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    //a new quantity is written into the existing stripe rows
+    void resplit_updatesStripesInPlace() {
+        hotStockService.split(1L, 10, 3);
+        entityManager.flush();
+        List<Long> ids = stripeRepository.findByProductIdOrderByStripeAsc(1L).stream().map(ProductStockStripe::getId).toList();
+
+        hotStockService.resplit(1L, 7);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ProductStockStripe> rows = stripeRepository.findByProductIdOrderByStripeAsc(1L);
+        assertEquals(ids, rows.stream().map(ProductStockStripe::getId).toList());
+        assertEquals(List.of(3, 2, 2), rows.stream().map(ProductStockStripe::getQuantity).toList());
+        assertEquals(7, hotStockService.totalQuantity(1L));
+    }
+
+    @Test
+    //merging and splitting again in one transaction does not hit the unique constraint
+    void merge_thenSplitInSameTransaction() {
+        hotStockService.split(1L, 10, 4);
+        entityManager.flush();
+
+        assertEquals(10, hotStockService.merge(1L));
+        assertFalse(hotStockService.isHot(1L));
+        hotStockService.split(1L, 6, 4);
+        entityManager.flush();
+
+        assertEquals(4, stripeRepository.countByProductId(1L));
+        assertEquals(6, hotStockService.totalQuantity(1L));
+    }
+
+    @Test
+    //reservations take from the stripes until the product runs dry
+    void reserve_takesFromStripes() {
+        hotStockService.split(1L, 5, 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(hotStockService.reserve(1L, 3));
+        assertTrue(hotStockService.reserve(1L, 2));
+        assertFalse(hotStockService.reserve(1L, 1));
+        assertEquals(0, hotStockService.totalQuantity(1L));
+    }
+}
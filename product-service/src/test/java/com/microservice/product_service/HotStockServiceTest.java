@@ -0,0 +1,140 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockStripe;
+import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.repository.ProductStockStripeRepository;
+import com.microservice.product_service.service.HotStockService;
+import com.microservice.product_service.service.ProductChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotStockServiceTest {
+
+    @Mock
+    private ProductStockStripeRepository stripeRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private HotStockService hotStockService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stripeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    //stock is spread evenly with the remainder on the first stripes
+    @SuppressWarnings("unchecked")
+    void split_spreadsEvenly() {
+        hotStockService.split(1L, 10, 4);
+
+        ArgumentCaptor<List<ProductStockStripe>> rows = ArgumentCaptor.forClass(List.class);
+        verify(stripeRepository).saveAll(rows.capture());
+        assertEquals(List.of(3, 3, 2, 2), rows.getValue().stream().map(ProductStockStripe::getQuantity).toList());
+        assertTrue(hotStockService.isHot(1L));
+        assertEquals(4, hotStockService.stripeCount(1L));
+    }
+
+    @Test
+    //a product switched to hot mode by another instance is found in the stripe table once
+    void isHot_looksUpStripesNotKnownHere() {
+        when(stripeRepository.countByProductId(1L)).thenReturn(4L);
+
+        assertTrue(hotStockService.isHot(1L));
+        assertTrue(hotStockService.isHot(1L));
+        assertEquals(4, hotStockService.stripeCount(1L));
+        verify(stripeRepository, times(1)).countByProductId(1L);
+        assertFalse(hotStockService.isHot(2L));
+    }
+
+    @Test
+    //a dry stripe falls back to its neighbours
+    void reserve_fallsBackToNeighbours() {
+        hotStockService.split(1L, 10, 4);
+        when(stripeRepository.take(eq(1L), anyInt(), eq(2))).thenReturn(0, 0, 1);
+
+        assertTrue(hotStockService.reserve(1L, 2));
+        verify(stripeRepository, times(3)).take(eq(1L), anyInt(), eq(2));
+    }
+
+    @Test
+    //a quantity larger than any stripe is taken from several stripes at once
+    void reserve_takesAcrossStripes() {
+        hotStockService.split(1L, 10, 2);
+        when(stripeRepository.take(eq(1L), anyInt(), eq(8))).thenReturn(0);
+        ProductStockStripe first = new ProductStockStripe(1L, 1L, 0, 5);
+        ProductStockStripe second = new ProductStockStripe(2L, 1L, 1, 5);
+        when(stripeRepository.findByProductIdOrderByStripeAsc(1L)).thenReturn(List.of(first, second));
+
+        assertTrue(hotStockService.reserve(1L, 8));
+        assertEquals(0, first.getQuantity());
+        assertEquals(2, second.getQuantity());
+    }
+
+    @Test
+    //not enough stock across all stripes
+    void reserve_failsWhenStripesRunDry() {
+        hotStockService.split(1L, 3, 2);
+        when(stripeRepository.take(eq(1L), anyInt(), eq(5))).thenReturn(0);
+        when(stripeRepository.findByProductIdOrderByStripeAsc(1L)).thenReturn(List.of(
+                new ProductStockStripe(1L, 1L, 0, 2), new ProductStockStripe(2L, 1L, 1, 1)));
+
+        assertFalse(hotStockService.reserve(1L, 5));
+    }
+
+    @Test
+    //the product row of a reserved hot product is bumped once and the listeners are told
+    void touchReserved_bumpsReservedProducts() {
+        ProductChangeListener listener = mock(ProductChangeListener.class);
+        ReflectionTestUtils.setField(hotStockService, "changeListeners", List.of(listener));
+        ProductModel product = new ProductModel(1L, "Hot", "Desc", "phone", 10.0, 0);
+        hotStockService.split(1L, 10, 2);
+        when(stripeRepository.take(eq(1L), anyInt(), eq(1))).thenReturn(1);
+        when(productRepository.touch(eq(1L), any(), anyLong())).thenReturn(1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        hotStockService.reserve(1L, 1);
+        hotStockService.reserve(1L, 1);
+        hotStockService.touchReserved();
+        hotStockService.touchReserved();
+
+        verify(productRepository, times(1)).touch(eq(1L), any(), anyLong());
+        verify(listener).productSaved(product);
+    }
+
+    @Test
+    //products that were never split are not hot
+    void reserve_notHot() {
+        when(stripeRepository.countByProductId(2L)).thenReturn(0L);
+
+        assertFalse(hotStockService.reserve(2L, 1));
+        verify(stripeRepository, never()).take(any(), any(), any());
+    }
+}
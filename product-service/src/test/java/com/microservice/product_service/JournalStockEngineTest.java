@@ -0,0 +1,168 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.cache.ProductVersionTable;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.stock.JournalStockEngine;
+import com.microservice.product_service.stock.StockJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalStockEngineTest {
+    private static final String TAKE_SQL = "update product_model set quantity = quantity - ?";
+    private static final String SET_SQL = "update product_model set quantity = ?";
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 10);
+
+    @Spy
+    private ProductVersionTable versionTable = new ProductVersionTable();
+
+    @InjectMocks
+    private JournalStockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockEngine, "journalFile", dir.resolve("stock.journal").toString());
+        //flushes are triggered by the tests
+        ReflectionTestUtils.setField(stockEngine, "flushIntervalMillis", 3_600_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stockEngine.stop();
+    }
+
+    @Test
+    //flushed rows have a new version, the cached copy and the known ETag are dropped
+    void flush_invalidatesCachedProducts() throws Exception {
+        stockEngine.start();
+        ProductModel product = new ProductModel(1L, "Phone", "Desc", "phone", 10.0, 10);
+        stockEngine.productsLoaded(List.of(product));
+        productCache.preload(List.of(product));
+        versionTable.record(product);
+
+        assertTrue(stockEngine.reserve(1L, 3));
+        ReflectionTestUtils.invokeMethod(stockEngine, "flush");
+
+        verify(productCache).invalidate(1L);
+        assertNull(versionTable.get(1L));
+        assertEquals(7, stockEngine.quantity(1L));
+    }
+
+    @Test
+    //only journal records after the checkpoint are written to the table on startup
+    @SuppressWarnings("unchecked")
+    void start_replaysAfterCheckpoint() throws Exception {
+        try (StockJournal journal = new StockJournal(dir.resolve("stock.journal"), 0, entries -> {})) {
+            journal.append(1L, true, 10).join();
+            journal.append(1L, false, 3).join();
+            journal.append(2L, false, 4).join();
+            journal.append(1L, false, 2).join();
+        }
+        when(jdbcTemplate.query(startsWith("select lsn"), any(RowMapper.class))).thenReturn(List.of(2L));
+
+        stockEngine.start();
+
+        ArgumentCaptor<List<Object[]>> takes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(TAKE_SQL), takes.capture());
+        assertEquals(List.of("1=2", "2=4"), takes.getValue().stream().map(row -> row[3] + "=" + row[0]).sorted().toList());
+        verify(jdbcTemplate).update("update stock_journal_checkpoint set lsn = ? where id = 1", 4L);
+    }
+
+    @Test
+    //a batch that could not be written is merged back under the changes journaled since
+    @SuppressWarnings("unchecked")
+    void flush_failedBatchIsRetriedWithNewerChanges() throws Exception {
+        stockEngine.start();
+        stockEngine.productsLoaded(List.of(new ProductModel(1L, "Phone", "Desc", "phone", 10.0, 10)));
+        //the empty batch of absolute quantities goes through unstubbed
+        lenient().when(jdbcTemplate.batchUpdate(startsWith(TAKE_SQL), anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(new int[0]);
+
+        assertTrue(stockEngine.reserve(1L, 3));
+        ReflectionTestUtils.invokeMethod(stockEngine, "flush");
+        assertTrue(stockEngine.reserve(1L, 2));
+        ReflectionTestUtils.invokeMethod(stockEngine, "flush");
+
+        ArgumentCaptor<List<Object[]>> takes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith(TAKE_SQL), takes.capture());
+        assertEquals(5, takes.getAllValues().get(1).get(0)[0]);
+        verify(productCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    //a new quantity followed by reservations is written as one absolute quantity
+    @SuppressWarnings("unchecked")
+    void flush_mergesSetAndTakes() throws Exception {
+        stockEngine.start();
+        stockEngine.productSaved(new ProductModel(1L, "Phone", "Desc", "phone", 10.0, 10));
+        assertTrue(stockEngine.reserve(1L, 4));
+        ReflectionTestUtils.invokeMethod(stockEngine, "flush");
+
+        ArgumentCaptor<List<Object[]>> sets = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> takes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(SET_SQL), sets.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith(TAKE_SQL), takes.capture());
+        assertEquals(6, sets.getValue().get(0)[0]);
+        assertTrue(takes.getValue().isEmpty());
+    }
+
+    @Test
+    //peers would sell the same stock from their own memory
+    void start_failsWithPeersEnabled() {
+        ReflectionTestUtils.setField(stockEngine, "peersEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> stockEngine.start());
+    }
+
+    @Test
+    //so would a second instance behind the load balancer
+    void start_failsWithOtherInstancesRegistered() {
+        when(discoveryClient.getInstances("product-service")).thenReturn(List.of(
+                new DefaultServiceInstance("other:8083", "product-service", "other", 8083, false)));
+
+        assertThrows(IllegalStateException.class, () -> stockEngine.start());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
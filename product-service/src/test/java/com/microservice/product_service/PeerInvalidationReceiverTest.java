@@ -0,0 +1,94 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.model.ProductInvalidation;
+import com.microservice.product_service.peer.PeerInvalidationBroadcaster;
+import com.microservice.product_service.peer.PeerInvalidationReceiver;
+import com.microservice.product_service.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeerInvalidationReceiverTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private PeerInvalidationBroadcaster broadcaster;
+
+    @InjectMocks
+    private PeerInvalidationReceiver receiver;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(broadcaster.getSource()).thenReturn("self");
+        lenient().doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(broadcaster).applyingPeerChanges(any(Runnable.class));
+    }
+
+    @Test
+    void receive_appliesBatchesInSequence() {
+        receiver.receive(batch("a", 1, false));
+        receiver.receive(batch("a", 2, false));
+
+        verify(productService, times(2)).applyPeerChanges(new long[]{1L}, new long[]{2L}, Map.of(3L, 1), List.of());
+        verify(productService, never()).loadIndexes();
+    }
+
+    @Test
+    void receive_ignoresDuplicatesAndOwnBatches() {
+        receiver.receive(batch("a", 1, false));
+        receiver.receive(batch("a", 1, false));
+        receiver.receive(batch("self", 1, false));
+
+        verify(productService, times(1)).applyPeerChanges(any(), any(), any(), any());
+    }
+
+    @Test
+    void receive_reloadsOnGap() {
+        receiver.receive(batch("a", 1, false));
+        receiver.receive(batch("a", 3, false));
+
+        verify(productService).loadIndexes();
+        verify(productService, times(1)).applyPeerChanges(any(), any(), any(), any());
+
+        //back in sequence after the reload
+        receiver.receive(batch("a", 4, false));
+        verify(productService, times(2)).applyPeerChanges(any(), any(), any(), any());
+    }
+
+    @Test
+    void receive_reloadsOnRefresh() {
+        receiver.receive(batch("a", 1, true));
+
+        verify(productService).loadIndexes();
+        verify(productService, never()).applyPeerChanges(any(), any(), any(), any());
+    }
+
+    @Test
+    //sources are tracked separately, a restarted peer comes back with a new source
+    void receive_tracksSourcesSeparately() {
+        receiver.receive(batch("a", 5, false));
+        receiver.receive(batch("b", 1, false));
+        receiver.receive(batch("a", 6, false));
+
+        verify(productService, times(3)).applyPeerChanges(any(), any(), any(), any());
+        verify(productService, never()).loadIndexes();
+    }
+
+    private ProductInvalidation batch(String source, long seq, boolean refresh) {
+        return new ProductInvalidation(source, seq, refresh, new long[]{1L}, new long[]{2L}, Map.of(3L, 1), List.of());
+    }
+}
@@ -0,0 +1,106 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductBestsellerIndex;
+import com.microservice.product_service.model.ProductBestseller;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBestsellerIndexTest {
+
+    private MutableClock clock;
+    private ProductBestsellerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        index = new ProductBestsellerIndex(1, clock);
+        index.productsLoaded(List.of(
+                new ProductModel(1L, "iPhone 15", "Desc", "phone", 800.0, 50),
+                new ProductModel(2L, "Pixel 8", "Desc", "phone", 700.0, 50),
+                new ProductModel(3L, "Coffee", "Desc", "food", 5.0, 50)));
+    }
+
+    @Test
+    //reservations rank products within their category and overall
+    void top_ranksByReservedUnits() {
+        index.stockReserved(1L, 2);
+        index.stockReserved(2L, 5);
+        index.stockReserved(3L, 9);
+
+        assertEquals(List.of(2L, 1L), ids(index.top("phone", 5)));
+        assertEquals(List.of(3L, 2L), ids(index.top(null, 2)));
+        assertEquals(5.0, index.top("phone", 1).get(0).getScore(), 1e-9);
+        assertTrue(index.top("books", 5).isEmpty());
+    }
+
+    @Test
+    //older sales count half as much after one half-life
+    void top_decaysOldSales() {
+        index.stockReserved(1L, 8);
+        clock.advance(Duration.ofHours(1));
+        index.stockReserved(2L, 5);
+
+        assertEquals(List.of(2L, 1L), ids(index.top("phone", 2)));
+        assertEquals(4.0, index.top("phone", 2).get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    //scores survive a rebase far in the future
+    void top_rebasesWithoutLosingOrder() {
+        index.stockReserved(1L, 3);
+        index.stockReserved(2L, 1);
+        clock.advance(Duration.ofHours(600));
+        index.stockReserved(3L, 1);
+
+        assertEquals(List.of(1L, 2L), ids(index.top("phone", 2)));
+    }
+
+    @Test
+    //a product that changes category moves its sales with it
+    void productSaved_movesCategory() {
+        index.stockReserved(2L, 4);
+        index.productSaved(new ProductModel(2L, "Pixel 8", "Desc", "tablet", 700.0, 46));
+
+        assertTrue(index.top("phone", 5).isEmpty());
+        assertEquals(List.of(2L), ids(index.top("tablet", 5)));
+
+        index.productDeleted(2L);
+        assertTrue(index.top("tablet", 5).isEmpty());
+    }
+
+    private List<Long> ids(List<ProductBestseller> bestsellers) {
+        return bestsellers.stream().map(ProductBestseller::getProductId).toList();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(100, 10);
+    }
+
+    @Test
+    //second read is served from the cache and counted as a hit
+    void get_loadsOnceAndCountsHits() {
+        AtomicInteger loads = new AtomicInteger();
+        ProductModel product = new ProductModel(1L, "A", "Desc", "phone", 100.0, 5);
+
+        cache.get(1L, id -> { loads.incrementAndGet(); return product; });
+        ProductModel cached = cache.get(1L, id -> { loads.incrementAndGet(); return product; });
+
+        assertSame(product, cached);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    //concurrent misses for one id trigger a single load
+    void get_concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductModel>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(1L, id -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new ProductModel(id, "A", "Desc", "phone", 100.0, 5);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<ProductModel> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    //saved products replace the cached copy, deletes and reservations drop it
+    void changes_updateCache() {
+        cache.get(1L, id -> new ProductModel(1L, "Old", "Desc", "phone", 100.0, 5));
+
+        ProductModel updated = new ProductModel(1L, "New", "Desc", "phone", 120.0, 5);
+        cache.productSaved(updated);
+        assertSame(updated, cache.get(1L, id -> null));
+
+        cache.stockReserved(1L, 1);
+        assertNull(cache.get(1L, id -> null));
+
+        cache.productSaved(updated);
+        cache.productDeleted(1L);
+        assertNull(cache.get(1L, id -> null));
+    }
+
+    @Test
+    //missing products are not cached
+    void get_doesNotCacheMissingProducts() {
+        assertNull(cache.get(1L, id -> null));
+        ProductModel product = new ProductModel(1L, "A", "Desc", "phone", 100.0, 5);
+        assertSame(product, cache.get(1L, id -> product));
+    }
+}
@@ -0,0 +1,79 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.feed.ProductChangeFeed;
+import com.microservice.product_service.model.ProductChange;
+import com.microservice.product_service.model.ProductChangeType;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ProductChangeFeed(3, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    //every kind of write gets the next sequence
+    void changes_areSequenced() {
+        ProductModel product = new ProductModel(1L, "A", "Desc", "phone", 10.0, 5);
+        product.setVersion(0L);
+        feed.productSaved(product);
+        feed.stockReserved(1L, 2);
+        feed.productDeleted(1L);
+
+        List<ProductChange> changes = feed.since(0, 10);
+        assertEquals(List.of(ProductChangeType.CREATED, ProductChangeType.STOCK_RESERVED, ProductChangeType.DELETED),
+                changes.stream().map(ProductChange::getType).toList());
+        assertEquals(3, changes.get(2).getSequence());
+        assertEquals(2, changes.get(1).getQuantity());
+        assertTrue(feed.since(3, 10).isEmpty());
+    }
+
+    @Test
+    //resuming works while the changes are still buffered
+    void since_resumesInsideBuffer() {
+        for (long id = 1; id <= 4; id++) {
+            feed.productDeleted(id);
+        }
+
+        assertEquals(List.of(3L, 4L), feed.since(2, 10).stream().map(ProductChange::getProductId).toList());
+        assertEquals(1, feed.since(1, 1).size());
+    }
+
+    @Test
+    //only event ids of this run resume, a bare sequence or one of an earlier run forces a resync
+    void resumeSequence_requiresEpochOfThisRun() {
+        String eventId = feed.eventId(2);
+
+        assertEquals(2L, feed.resumeSequence(eventId));
+        assertNull(feed.resumeSequence("2"));
+        assertNull(feed.resumeSequence("0" + eventId));
+        assertNull(feed.resumeSequence(eventId.replace(":2", ":x")));
+    }
+
+    @Test
+    //overwritten or unknown sequences ask the client to resync
+    void since_returnsNullOutsideBuffer() {
+        for (long id = 1; id <= 5; id++) {
+            feed.productDeleted(id);
+        }
+
+        assertNull(feed.since(1, 10));
+        assertNull(feed.since(9, 10));
+        assertNotNull(feed.since(2, 10));
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.feed.ProductChangeSequence;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeSequenceTest {
+
+    private final ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @Test
+    //values keep growing even when the clock does not
+    void next_isStrictlyIncreasing() {
+        changeSequence.seed(Long.MAX_VALUE / 2);
+
+        assertEquals(Long.MAX_VALUE / 2 + 1, changeSequence.next());
+        assertEquals(Long.MAX_VALUE / 2 + 2, changeSequence.next());
+    }
+
+    @Test
+    //an uncommitted transaction holds the watermark below its value until it completes
+    void watermark_staysBelowOpenTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            long open = changeSequence.next();
+            long committed = changeSequence.write(seq -> seq);
+
+            assertTrue(committed > open);
+            assertEquals(open - 1, changeSequence.watermark());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertTrue(changeSequence.watermark() >= committed);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    //a failed single statement write releases its value as well
+    void write_releasesOnFailure() {
+        assertThrows(IllegalStateException.class, () -> changeSequence.write(seq -> {
+            assertTrue(changeSequence.watermark() < seq);
+            throw new IllegalStateException("write failed");
+        }));
+
+        long seq = changeSequence.writeAll(2, seqs -> seqs[1]);
+        assertTrue(changeSequence.watermark() >= seq);
+    }
+}
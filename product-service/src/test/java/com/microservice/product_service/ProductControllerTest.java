@@ -1,7 +1,16 @@
 package com.microservice.product_service;
 
+import com.microservice.product_service.cache.ProductVersionTable;
 import com.microservice.product_service.controller.ProductController;
+import com.microservice.product_service.model.ProductBestseller;
+import com.microservice.product_service.model.ProductDelta;
+import com.microservice.product_service.model.ProductFacets;
 import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockPrice;
+import com.microservice.product_service.model.ProductSuggestion;
+import com.microservice.product_service.model.ProductImportResult;
+import com.microservice.product_service.service.ProductImportService;
+import com.microservice.product_service.service.ProductSearchService;
 import com.microservice.product_service.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +18,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -26,6 +44,12 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
     @Test
     // add products
     void addProduct_success() throws Exception {
@@ -50,17 +74,168 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
 
+    @Test
+    //fetch products after a cursor id
+    void getAllProducts_afterCursor() throws Exception {
+        List<ProductModel> products = List.of(new ProductModel(11L, "Test Product", "Desc", "phone", 150.0, 5));
+        when(productService.getProductsAfter(10L, 1)).thenReturn(products);
+
+        mockMvc.perform(get("/products")
+                .param("after", "10")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(11));
+    }
+
+    @Test
+    //stream all products as one json array
+    void streamAllProducts_success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductModel> consumer = invocation.getArgument(0);
+            consumer.accept(new ProductModel(1L, "First", "Desc", "phone", 150.0, 5));
+            consumer.accept(new ProductModel(2L, "Second", "Desc", "phone", 150.0, 5));
+            return null;
+        }).when(productService).streamAllProducts(any());
+
+        MvcResult result = mockMvc.perform(get("/products").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].name").value("Second"));
+    }
+
+    @Test
+    //export writes one product per line
+    void exportProducts_writesNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductModel> consumer = invocation.getArgument(1);
+            consumer.accept(new ProductModel(1L, "First", "Desc", "phone", 150.0, 5));
+            consumer.accept(new ProductModel(2L, "Second", "Desc", "phone", 150.0, 5));
+            return null;
+        }).when(productService).exportProducts(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/products/export").param("since", "2024-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"name\":\"Second\""));
+        verify(productService).exportProducts(eq(Instant.parse("2024-01-01T00:00:00Z")), any());
+    }
+
+    @Test
+    //export is gzipped when the client accepts it
+    void exportProducts_gzip() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductModel> consumer = invocation.getArgument(1);
+            consumer.accept(new ProductModel(1L, "First", "Desc", "phone", 150.0, 5));
+            return null;
+        }).when(productService).exportProducts(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/products/export").header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).startsWith("{\"id\":1"));
+        }
+    }
+
+    @Test
+    //bulk csv import reports imported and rejected rows
+    void importCsv_success() throws Exception {
+        when(productImportService.importCsv(any())).thenReturn(new ProductImportResult(2, 1, Map.of(3L, "Quantity cannot be negative")));
+
+        mockMvc.perform(post("/products/bulk")
+                .contentType("text/csv")
+                .content("name,description,category,price,quantity\nA,d,phone,1.0,1\nB,d,phone,2.0,2\nC,d,phone,3.0,-1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors.3").value("Quantity cannot be negative"));
+    }
+
+    @Test
+    //suggestions for a prefix
+    void suggest_success() throws Exception {
+        when(productService.suggestProducts("iph", 5)).thenReturn(List.of(new ProductSuggestion(1L, "iPhone 15")));
+
+        mockMvc.perform(get("/products/suggest").param("prefix", "iph").param("k", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("iPhone 15"));
+    }
+
+    @Test
+    //bestsellers of one category
+    void getBestsellers_success() throws Exception {
+        when(productService.getBestsellers("phone", 3)).thenReturn(List.of(new ProductBestseller(1L, "iPhone 15", "phone", 12.0)));
+
+        mockMvc.perform(get("/products/bestsellers").param("category", "phone").param("k", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(1))
+                .andExpect(jsonPath("$[0].score").value(12.0));
+    }
+
+    @Test
+    //change feed resumes from the Last-Event-ID header
+    void subscribeToChanges_resumesFromLastEventId() throws Exception {
+        when(productService.subscribeToChanges("k9:42")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/products/changes").header("Last-Event-ID", "k9:42"))
+                .andExpect(request().asyncStarted());
+
+        verify(productService).subscribeToChanges("k9:42");
+    }
+
+    @Test
+    //delta sync page
+    void getDelta_success() throws Exception {
+        when(productService.getDelta(10L, 500)).thenReturn(new ProductDelta(List.of(), List.of(4L), 12L, false));
+
+        mockMvc.perform(get("/products/delta").param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted[0]").value(4))
+                .andExpect(jsonPath("$.nextSince").value(12));
+    }
+
     @Test
     //get product by id
     void getProductById_success() throws Exception {
         ProductModel product = new ProductModel(1L, "Test Product", "Desc", "phone", 150.0, 5);
-        when(productService.getProductById(1L)).thenReturn(product);
+        product.setVersion(2L);
+        when(productService.getProductByIdWithVersion(1L)).thenReturn(product);
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
                 .andExpect(jsonPath("$.name").value("Test Product"));
     }
 
+    @Test
+    //matching If-None-Match is answered with 304 without loading the product
+    void getProductById_notModified() throws Exception {
+        ProductModel product = new ProductModel(1L, "Test Product", "Desc", "phone", 150.0, 5);
+        product.setVersion(2L);
+        when(productService.getKnownVersion(1L)).thenReturn(ProductVersionTable.ProductVersion.of(product));
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getProductByIdWithVersion(1L);
+    }
+
     @Test
     //update product by id 
     void updateProduct_success() throws Exception {
@@ -97,6 +272,18 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
 
+    @Test
+    //count products in a price range
+    void countByPriceRange_success() throws Exception {
+        when(productService.countProductsByPriceRange(5.0, 200.0)).thenReturn(3L);
+
+        mockMvc.perform(get("/products/filter/price/count")
+                .param("min", "5.0")
+                .param("max", "200.0"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+
     @Test
     //Get product by name
     void getByName_success() throws Exception {
@@ -109,6 +296,20 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
 
+    @Test
+    //fuzzy name search goes to the typo tolerant lookup
+    void getByName_fuzzy() throws Exception {
+        List<ProductModel> products = List.of(new ProductModel(1L, "iPhone 15", "Desc", "phone", 150.0, 5));
+        when(productService.getProductsByNameFuzzy("iphnoe", 20)).thenReturn(products);
+
+        mockMvc.perform(get("/products/filter/name")
+                .param("name", "iphnoe")
+                .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("iPhone 15"));
+        verify(productService, never()).getProductsByName(any());
+    }
+
     @Test
     // Get product by category
     void getByCategory_success() throws Exception {
@@ -120,4 +321,50 @@ class ProductControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
+
+    @Test
+    // get price and stock only
+    void getStockPrice_success() throws Exception {
+        ProductStockPrice stockPrice = new ProductStockPrice() {
+            public Long getId() { return 1L; }
+            public Double getPrice() { return 150.0; }
+            public Integer getQuantity() { return 5; }
+        };
+        when(productService.getStockPrice(1L)).thenReturn(stockPrice);
+
+        mockMvc.perform(get("/products/1/stock-price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(150.0))
+                .andExpect(jsonPath("$.quantity").value(5))
+                .andExpect(jsonPath("$.name").doesNotExist());
+    }
+
+    @Test
+    // facet counts
+    void getFacets_success() throws Exception {
+        ProductFacets facets = new ProductFacets(2, Map.of("phone", 2L), Map.of("100-500", 2L));
+        when(productService.getFacets("phone", null)).thenReturn(facets);
+
+        mockMvc.perform(get("/products/facets")
+                .param("category", "phone"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.categories.phone").value(2));
+    }
+
+    @Test
+    // combined search
+    void search_success() throws Exception {
+        List<ProductModel> products = List.of(new ProductModel(1L, "Test Product", "Desc", "phone", 150.0, 5));
+        when(productSearchService.search("Test", "phone", 100.0, null, true, "price_asc", 0, 20)).thenReturn(products);
+
+        mockMvc.perform(get("/products/search")
+                .param("name", "Test")
+                .param("category", "phone")
+                .param("minPrice", "100.0")
+                .param("inStock", "true")
+                .param("sort", "price_asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Product"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.index.ProductFacetIndex;
+import com.microservice.product_service.model.ProductFacets;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    private final List<ProductModel> products = List.of(
+            new ProductModel(1L, "A", "Desc", "phone", 500.0, 5),
+            new ProductModel(2L, "B", "Desc", "phone", 20.0, 5),
+            new ProductModel(3L, "C", "Desc", "cable", 10.0, 5),
+            new ProductModel(4L, "D", "Desc", "cable", 75.0, 5),
+            new ProductModel(5L, "E", "Desc", null, 50.0, 5));
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(new double[]{0, 50, 100});
+        index.productsLoaded(products.subList(0, 4));
+    }
+
+    @Test
+    //counts without filters
+    void facets_unfiltered() {
+        ProductFacets facets = index.facets(null, null);
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(2L, facets.getCategories().get("phone"));
+        assertEquals(2L, facets.getPriceBuckets().get("0-50"));
+        assertEquals(1L, facets.getPriceBuckets().get("50-100"));
+        assertEquals(1L, facets.getPriceBuckets().get("100+"));
+    }
+
+    @Test
+    //each dimension is counted under the filter of the other one
+    void facets_filtered() {
+        ProductFacets facets = index.facets("cable", "0-50");
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(1L, facets.getCategories().get("phone"));
+        assertEquals(1L, facets.getPriceBuckets().get("50-100"));
+        assertThrows(ProductException.class, () -> index.facets(null, "5-10"));
+    }
+
+    @Test
+    //grouped database counts give the same facets as the loaded index
+    void facets_fromDatabaseCountsMatchIndex() {
+        index.productSaved(products.get(4));
+        ProductFacetIndex unloaded = new ProductFacetIndex(new double[]{0, 50, 100});
+
+        for (String category : Arrays.asList(null, "phone", "cable", "toy")) {
+            for (String bucket : Arrays.asList(null, "0-50", "50-100", "100+")) {
+                ProductFacets expected = index.facets(category, bucket);
+                ProductFacets actual = unloaded.facets(category, bucket, count(null, null), this::count);
+                assertEquals(expected.getTotal(), actual.getTotal());
+                assertEquals(expected.getCategories(), actual.getCategories());
+                assertEquals(expected.getPriceBuckets(), actual.getPriceBuckets());
+            }
+        }
+        assertThrows(ProductException.class, () -> unloaded.facets(null, "5-10", List.of(), this::count));
+    }
+
+    @Test
+    //writes move products between bitmaps
+    void productSavedAndDeleted_updateBitmaps() {
+        index.productSaved(new ProductModel(2L, "B", "Desc", "cable", 200.0, 5));
+        index.productDeleted(1L);
+
+        ProductFacets facets = index.facets(null, null);
+        assertEquals(3, facets.getTotal());
+        assertNull(facets.getCategories().get("phone"));
+        assertEquals(1L, facets.getPriceBuckets().get("100+"));
+    }
+
+    //what the grouped count queries return for the test products
+    private List<Object[]> count(Double min, Double max) {
+        Map<String, Long> counts = new HashMap<>();
+        for (ProductModel product : products) {
+            if ((min == null || product.getPrice() >= min) && (max == null || product.getPrice() < max)) {
+                counts.merge(product.getCategory(), 1L, Long::sum);
+            }
+        }
+        return counts.entrySet().stream().map(entry -> new Object[]{entry.getKey(), entry.getValue()}).toList();
+    }
+}
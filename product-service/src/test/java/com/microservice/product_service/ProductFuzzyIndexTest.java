@@ -0,0 +1,75 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductFuzzyIndex;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFuzzyIndexTest {
+
+    private ProductFuzzyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFuzzyIndex();
+        index.productsLoaded(List.of(
+                new ProductModel(1L, "iPhone 15 Pro", "Desc", "phone", 900.0, 5),
+                new ProductModel(2L, "Samsung Galaxy", "Desc", "phone", 800.0, 5),
+                new ProductModel(3L, "Galaxy Buds", "Desc", "audio", 100.0, 5),
+                new ProductModel(4L, "Headphones", "Desc", "audio", 50.0, 5)));
+    }
+
+    @Test
+    //misspelled words are matched within their edit distance
+    void search_toleratesTypos() {
+        assertEquals(Map.of(1L, 2), index.search("iphnoe"));
+        assertEquals(Map.of(2L, 1, 3L, 1), index.search("galaxi"));
+        assertEquals(Map.of(4L, 1), index.search("headphnes"));
+    }
+
+    @Test
+    //every query word has to match and distances add up
+    void search_requiresAllWords() {
+        assertEquals(Map.of(3L, 1), index.search("galxy buds"));
+        assertEquals(Map.of(2L, 0), index.search("samsung galaxy"));
+        assertTrue(index.search("galaxy watch").isEmpty());
+    }
+
+    @Test
+    //short words are not fuzzy matched
+    void search_shortWordsMustMatchExactly() {
+        assertEquals(Map.of(1L, 0), index.search("15"));
+        assertTrue(index.search("16").isEmpty());
+    }
+
+    @Test
+    //renamed and deleted products stop matching their old words
+    void changes_updateIndex() {
+        index.productSaved(new ProductModel(2L, "Samsung Tablet", "Desc", "tablet", 500.0, 5));
+        index.productDeleted(4L);
+
+        assertEquals(Map.of(3L, 1), index.search("galaxi"));
+        assertEquals(Map.of(2L, 1), index.search("tabet"));
+        assertTrue(index.search("headphones").isEmpty());
+    }
+
+    @Test
+    //words no product uses any more are dropped from the tree once they pile up
+    void changes_rebuildTreeWithoutDeadWords() {
+        assertEquals(7, index.treeSize());
+
+        index.productDeleted(4L);
+        assertEquals(7, index.treeSize());
+        assertTrue(index.search("headphones").isEmpty());
+
+        index.productDeleted(3L);
+        assertEquals(5, index.treeSize());
+        assertEquals(Map.of(2L, 1), index.search("galaxi"));
+        assertTrue(index.search("buds").isEmpty());
+    }
+}
@@ -0,0 +1,143 @@
+package com.microservice.product_service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductImportResult;
+import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.service.ProductImportService;
+import com.microservice.product_service.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private ProductService productService = new ProductService();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    @Test
+    //valid json rows are written in batches, invalid ones reported by row number
+    void importJson_batchesValidRows() {
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+
+        ProductImportResult result = productImportService.importJson(body("["
+                + "{\"name\":\"A\",\"category\":\"phone\",\"price\":1.0,\"quantity\":1},"
+                + "{\"name\":\"B\",\"category\":\"phone\",\"price\":2.0,\"quantity\":-1},"
+                + "{\"name\":\"C\",\"category\":\"phone\",\"price\":\"abc\",\"quantity\":1},"
+                + "{\"name\":\"D\",\"category\":\"phone\",\"price\":4.0,\"quantity\":4},"
+                + "{\"name\":\"E\",\"category\":\"phone\",\"price\":5.0,\"quantity\":5}]"));
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals("Quantity cannot be negative", result.getErrors().get(2L));
+        assertTrue(result.getErrors().containsKey(3L));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(productRepository, times(2)).findByChangeSeqIn(anyCollection());
+        verify(productService, times(2)).productsImported(anyList());
+        verify(productService, never()).loadIndexes();
+    }
+
+    @Test
+    //an element that is not an object fails its row, the rows after it are still imported
+    void importJson_nonObjectElementFailsOnlyItsRow() {
+        ProductImportResult result = productImportService.importJson(body("["
+                + "{\"name\":\"A\",\"category\":\"phone\",\"price\":1.0,\"quantity\":1},"
+                + "null, 7, [{\"name\":\"X\"}],"
+                + "{\"name\":\"B\",\"category\":\"phone\",\"price\":2.0,\"quantity\":2}]"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals("Expected a product object but found VALUE_NULL", result.getErrors().get(2L));
+        assertTrue(result.getErrors().containsKey(4L));
+    }
+
+    @Test
+    //a body that breaks off keeps the batches already written and reports the count
+    void importJson_brokenBodyReportsImportedRows() {
+        ReflectionTestUtils.setField(productImportService, "batchSize", 1);
+
+        ProductImportResult result = productImportService.importJson(body("["
+                + "{\"name\":\"A\",\"category\":\"phone\",\"price\":1.0,\"quantity\":1},"
+                + "{\"name\":\"B\",\"categ"));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getErrors().get(2L).startsWith("Invalid JSON"));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    //a large import rebuilds the indexes once instead of announcing every row
+    void importJson_aboveThresholdReloadsIndexes() {
+        ReflectionTestUtils.setField(productImportService, "reloadThreshold", 1L);
+        doNothing().when(productService).loadIndexes();
+
+        ProductImportResult result = productImportService.importJson(body("["
+                + "{\"name\":\"A\",\"category\":\"phone\",\"price\":1.0,\"quantity\":1},"
+                + "{\"name\":\"B\",\"category\":\"phone\",\"price\":2.0,\"quantity\":2}]"));
+
+        assertEquals(2, result.getImported());
+        verify(productService).loadIndexes();
+        verify(productService, never()).productsImported(anyList());
+    }
+
+    @Test
+    //csv rows including quoted fields are imported
+    void importCsv_parsesRows() {
+        ProductImportResult result = productImportService.importCsv(body(
+                "name,description,category,price,quantity\n"
+                        + "\"Phone, 128GB\",\"The \"\"best\"\" one\",phone,300.0,5\n"
+                        + "Broken,row\n"));
+
+        assertEquals(1, result.getImported());
+        assertEquals("Expected 5 fields but found 2", result.getErrors().get(2L));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && "Phone, 128GB".equals(rows.get(0)[0]) && "The \"best\" one".equals(rows.get(0)[1])));
+    }
+
+    @Test
+    //nothing is written and indexes are not reloaded when every row is rejected
+    void importCsv_allRowsRejected() {
+        ProductImportResult result = productImportService.importCsv(body(
+                "name,description,category,price,quantity\n,d,phone,1.0,1\n"));
+
+        assertEquals(0, result.getImported());
+        assertEquals("Name is required", result.getErrors().get(1L));
+        verifyNoInteractions(jdbcTemplate);
+        verify(productService, never()).loadIndexes();
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
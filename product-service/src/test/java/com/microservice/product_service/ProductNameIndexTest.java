@@ -0,0 +1,55 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductNameIndex;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductNameIndexTest {
+
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductNameIndex();
+        index.productsLoaded(List.of(
+                new ProductModel(1L, "Galaxy Phone", "Desc", "phone", 500.0, 5),
+                new ProductModel(2L, "Pixel Phone", "Desc", "phone", 400.0, 5),
+                new ProductModel(3L, "Laptop Stand", "Desc", "accessory", 30.0, 5)));
+    }
+
+    @Test
+    //substring search ignores case
+    void search_findsSubstringIgnoringCase() {
+        assertArrayEquals(new long[]{1L, 2L}, index.search("PHONE"));
+        assertArrayEquals(new long[]{1L}, index.search("axy p"));
+        assertArrayEquals(new long[0], index.search("tablet"));
+    }
+
+    @Test
+    //queries shorter than three characters
+    void search_shortQuery() {
+        assertArrayEquals(new long[]{3L}, index.search("la"));
+    }
+
+    @Test
+    //grams present but not in sequence
+    void search_rejectsOutOfOrderGrams() {
+        assertArrayEquals(new long[0], index.search("phone galaxy"));
+    }
+
+    @Test
+    //index follows updates and deletes
+    void productSavedAndDeleted_updateIndex() {
+        index.productSaved(new ProductModel(2L, "Pixel Tablet", "Desc", "tablet", 400.0, 5));
+        assertArrayEquals(new long[]{1L}, index.search("phone"));
+        assertArrayEquals(new long[]{2L}, index.search("tablet"));
+
+        index.productDeleted(2L);
+        assertArrayEquals(new long[0], index.search("tablet"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductPriceIndex;
+import com.microservice.product_service.model.ProductModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex();
+        index.productsLoaded(List.of(
+                new ProductModel(1L, "A", "Desc", "phone", 300.0, 5),
+                new ProductModel(2L, "B", "Desc", "phone", 100.0, 5),
+                new ProductModel(3L, "C", "Desc", "phone", 200.0, 5),
+                new ProductModel(4L, "D", "Desc", "phone", 200.0, 5)));
+    }
+
+    @Test
+    //range bounds are inclusive and results come cheapest first
+    void range_returnsIdsInPriceOrder() {
+        assertArrayEquals(new long[]{2L, 3L, 4L}, index.range(100.0, 200.0, 0, Integer.MAX_VALUE));
+        assertEquals(3, index.count(100.0, 200.0));
+        assertEquals(0, index.count(400.0, 500.0));
+    }
+
+    @Test
+    //paging through a range
+    void range_pages() {
+        assertArrayEquals(new long[]{3L, 4L}, index.range(0.0, 1000.0, 1, 2));
+        assertArrayEquals(new long[0], index.range(0.0, 1000.0, 10, 2));
+    }
+
+    @Test
+    //price changes move the product, deletes remove it
+    void productSavedAndDeleted_updateIndex() {
+        index.productSaved(new ProductModel(1L, "A", "Desc", "phone", 50.0, 5));
+        assertArrayEquals(new long[]{1L, 2L}, index.range(0.0, 150.0, 0, 10));
+
+        index.productDeleted(3L);
+        assertArrayEquals(new long[]{4L}, index.range(200.0, 200.0, 0, 10));
+        assertEquals(3, index.count(0.0, 1000.0));
+    }
+}
@@ -0,0 +1,121 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductRelatedIndex;
+import com.microservice.product_service.model.OrderBasket;
+import com.microservice.product_service.model.RelatedProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRelatedIndexTest {
+
+    private ProductRelatedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductRelatedIndex(3);
+    }
+
+    @Test
+    //most shared orders first, ties by lower id
+    void related_rankedByOrdersTogether() {
+        index.recordOrder(new long[]{1, 2, 3});
+        index.recordOrder(new long[]{1, 3});
+        index.recordOrder(new long[]{1, 4});
+
+        assertEquals(List.of(3L, 2L, 4L), ids(index.related(1, 10)));
+        assertEquals(2, index.related(1, 10).get(0).getOrders());
+        assertEquals(List.of(3L), ids(index.related(1, 1)));
+        assertEquals(List.of(1L, 3L), ids(index.related(2, 10)));
+    }
+
+    @Test
+    //a new order replaces the cached neighbours of its products
+    void recordOrder_refreshesTopK() {
+        index.recordOrder(new long[]{1, 2});
+        assertEquals(List.of(2L), ids(index.related(1, 10)));
+
+        index.recordOrder(new long[]{1, 5});
+        index.recordOrder(new long[]{1, 5});
+
+        assertEquals(List.of(5L, 2L), ids(index.related(1, 10)));
+    }
+
+    @Test
+    //only the configured number of neighbours is kept
+    void related_keepsTopK() {
+        index.recordOrder(LongStream.rangeClosed(1, 50).toArray());
+        index.recordOrder(new long[]{1, 40});
+
+        List<Long> related = ids(index.related(1, 10));
+        assertEquals(List.of(40L, 2L, 3L), related);
+    }
+
+    @Test
+    //duplicate ids in one order count once, single product orders not at all
+    void recordOrder_ignoresDuplicatesAndSingles() {
+        index.recordOrder(new long[]{1, 1, 2});
+        index.recordOrder(new long[]{1});
+
+        assertEquals(1, index.related(1, 10).get(0).getOrders());
+        assertTrue(index.related(7, 10).isEmpty());
+    }
+
+    @Test
+    //parallel bootstrap gives the same counts as counting order by order
+    void bootstrap_matchesIncrementalCounts() {
+        List<long[]> history = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            history.add(new long[]{i % 7 + 1, i % 11 + 1, i % 13 + 1});
+        }
+        ProductRelatedIndex incremental = new ProductRelatedIndex(3);
+        history.forEach(incremental::recordOrder);
+
+        index.bootstrap(history);
+
+        for (long id = 1; id <= 13; id++) {
+            List<RelatedProduct> expected = incremental.related(id, 10);
+            List<RelatedProduct> actual = index.related(id, 10);
+            assertEquals(ids(expected), ids(actual));
+            assertEquals(expected.stream().map(RelatedProduct::getOrders).toList(),
+                    actual.stream().map(RelatedProduct::getOrders).toList());
+        }
+    }
+
+    @Test
+    //orders counted live before the bootstrap started are handed to it, later ones up to its last id are skipped
+    void orderRecorded_countsEachOrderOnce() {
+        index.orderRecorded(new OrderBasket(5L, List.of(1L, 2L)));
+
+        assertEquals(Set.of(5L), index.beginBootstrap(6L));
+        index.orderRecorded(new OrderBasket(6L, List.of(1L, 2L)));
+        index.orderRecorded(new OrderBasket(7L, List.of(1L, 2L)));
+
+        assertEquals(2, index.related(1, 10).get(0).getOrders());
+    }
+
+    @Test
+    //a deleted product is gone from its own row and from its neighbours
+    void productDeleted_removesEverywhere() {
+        index.recordOrder(LongStream.rangeClosed(1, 40).toArray());
+        index.recordOrder(new long[]{1, 2});
+        assertEquals(2L, index.related(1, 10).get(0).getProductId());
+        assertTrue(ids(index.related(30, 10)).contains(2L));
+
+        index.productDeleted(2L);
+
+        assertTrue(index.related(2, 10).isEmpty());
+        assertEquals(List.of(3L, 4L, 5L), ids(index.related(1, 10)));
+        assertFalse(ids(index.related(30, 10)).contains(2L));
+    }
+
+    private List<Long> ids(List<RelatedProduct> related) {
+        return related.stream().map(RelatedProduct::getProductId).toList();
+    }
+}
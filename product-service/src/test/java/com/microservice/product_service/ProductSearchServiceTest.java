@@ -0,0 +1,113 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.index.ProductFacetIndex;
+import com.microservice.product_service.index.ProductNameIndex;
+import com.microservice.product_service.index.ProductPriceIndex;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.service.ProductSearchService;
+import com.microservice.product_service.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private ProductNameIndex nameIndex = new ProductNameIndex();
+
+    @Spy
+    private ProductPriceIndex priceIndex = new ProductPriceIndex();
+
+    @Spy
+    private ProductFacetIndex facetIndex = new ProductFacetIndex(new double[]{0, 100});
+
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    private final ProductModel galaxy = new ProductModel(1L, "Galaxy Phone", "Desc", "phone", 500.0, 5);
+    private final ProductModel pixel = new ProductModel(2L, "Pixel Phone", "Desc", "phone", 400.0, 0);
+    private final ProductModel cable = new ProductModel(3L, "Phone Cable", "Desc", "cable", 10.0, 5);
+
+    @BeforeEach
+    void setUp() {
+        List<ProductModel> products = List.of(galaxy, pixel, cable);
+        nameIndex.productsLoaded(products);
+        priceIndex.productsLoaded(products);
+        facetIndex.productsLoaded(products);
+        lenient().when(productService.withCurrentStock(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    //name, category and price combined, sorted by price
+    void search_combinesCriteria() {
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(galaxy, pixel));
+
+        List<ProductModel> result = productSearchService.search("phone", "phone", 100.0, null, false, "price_asc", 0, 20);
+
+        assertEquals(List.of(pixel, galaxy), result);
+        verify(productService, never()).loadIndexes();
+    }
+
+    @Test
+    //out of stock products are skipped before paging
+    void search_inStockOnly() {
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(galaxy, pixel));
+
+        List<ProductModel> result = productSearchService.search(null, "phone", null, null, true, "id", 0, 20);
+
+        assertEquals(List.of(galaxy), result);
+    }
+
+    @Test
+    //no criteria pages the catalog in the database
+    void search_withoutCriteriaUsesRepository() {
+        when(productRepository.findInStock(any())).thenReturn(List.of(galaxy, cable));
+
+        List<ProductModel> result = productSearchService.search(null, null, null, null, true, "id", 0, 20);
+
+        assertEquals(2, result.size());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    //before the indexes are loaded the database answers, a request never loads them
+    void search_beforeIndexesLoadUsesDatabase() {
+        ReflectionTestUtils.setField(productSearchService, "nameIndex", new ProductNameIndex());
+        when(productRepository.search(eq("%50!% phone%"), eq("phone"), isNull(), isNull(), eq(true), any())).thenReturn(List.of(galaxy));
+
+        List<ProductModel> result = productSearchService.search("50% Phone", "phone", null, null, true, "id", 0, 20);
+
+        assertEquals(List.of(galaxy), result);
+        verify(productService, never()).loadIndexes();
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void search_throwsOnUnknownSort() {
+        ProductException exception = assertThrows(ProductException.class,
+                () -> productSearchService.search("phone", null, null, null, false, "rating", 0, 20));
+        assertTrue(exception.getMessage().startsWith("Unknown sort: rating"));
+    }
+}
@@ -1,18 +1,36 @@
 package com.microservice.product_service;
 
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.cache.ProductVersionTable;
 import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.index.ProductNameIndex;
+import com.microservice.product_service.index.ProductPriceIndex;
+import com.microservice.product_service.model.ProductDelta;
 import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductStockPrice;
+import com.microservice.product_service.model.ProductTombstone;
+import com.microservice.product_service.peer.PeerInvalidationBroadcaster;
 import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.repository.ProductTombstoneRepository;
+import com.microservice.product_service.service.HotStockService;
 import com.microservice.product_service.service.ProductService;
+import com.microservice.product_service.stock.JournalStockEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +42,27 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private HotStockService hotStockService;
+
+    @Spy
+    private ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @Spy
+    private ProductNameIndex nameIndex = new ProductNameIndex();
+
+    @Spy
+    private ProductPriceIndex priceIndex = new ProductPriceIndex();
+
+    @Spy
+    private ProductVersionTable versionTable = new ProductVersionTable();
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 10);
+
     @InjectMocks
     private ProductService productService;
 
@@ -57,6 +96,18 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
+    @Test
+    //NaN and Infinity are not prices
+    void addProduct_throwsExceptionWhenPriceNotFinite() {
+        for (double price : new double[]{Double.NaN, Double.POSITIVE_INFINITY}) {
+            testProduct.setPrice(price);
+
+            ProductException exception = assertThrows(ProductException.class, () -> productService.addProduct(testProduct));
+            assertEquals("Price must be a finite number", exception.getMessage());
+        }
+        verify(productRepository, never()).save(any());
+    }
+
     @Test
     //checking all the products
     void getAllProducts_success() {
@@ -69,6 +120,17 @@ class ProductServiceTest {
         verify(productRepository).findAll();
     }
 
+    @Test
+    //keyset page after a cursor id
+    void getProductsAfter_success() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(testProduct));
+
+        List<ProductModel> result = productService.getProductsAfter(0L, 10);
+
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findAll();
+    }
+
     @Test
     //checking the product by id when product is available
     void getProductById_success() {
@@ -80,6 +142,18 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
     }
 
+    @Test
+    //repeated reads of one product hit the database once
+    void getProductById_servedFromCache() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        productService.getProductById(1L);
+        productService.getProductById(1L);
+
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(1, productService.getCacheStats().getHits());
+    }
+
     @Test
     //checking product by id when product not available 
     void getProductById_throwsExceptionWhenNotFound() {
@@ -93,7 +167,7 @@ class ProductServiceTest {
     //updating product when product is available
     void updateProduct_success() {
         ProductModel updated = new ProductModel(1L, "Updated Product", "New Desc", "New Cat", 20.0, 10);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(ProductModel.class))).thenReturn(updated);
 
         ProductModel result = productService.updateProduct(1L, updated);
@@ -106,7 +180,7 @@ class ProductServiceTest {
     @Test
     //updating product when product is not available
     void updateProduct_throwsExceptionWhenNotFound() {
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.lockById(1L)).thenReturn(Optional.empty());
 
         ProductException exception = assertThrows(ProductException.class, () -> productService.updateProduct(1L, testProduct));
         assertEquals("Product not found with id: 1", exception.getMessage());
@@ -121,6 +195,7 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository).deleteById(1L);
+        verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getProductId() == 1L && tombstone.getChangeSeq() != null));
     }
 
     @Test
@@ -145,6 +220,41 @@ class ProductServiceTest {
         verify(productRepository).findByPriceBetween(5.0, 15.0);
     }
 
+    @Test
+    //counting and paging a price range from the loaded price index
+    void getProductsByPriceRange_pagesFromIndex() {
+        ProductModel cheaper = new ProductModel(2L, "Cheaper Product", "Description", "Category", 8.0, 5);
+        priceIndex.productsLoaded(List.of(testProduct, cheaper));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        assertEquals(2, productService.countProductsByPriceRange(5.0, 15.0));
+        List<ProductModel> result = productService.getProductsByPriceRange(5.0, 15.0, 1, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+        verify(productRepository, never()).findByPriceBetween(any(), any());
+    }
+
+    @Test
+    //a broad range is looked up in chunks instead of one huge IN list, in price order
+    @SuppressWarnings("unchecked")
+    void getProductsByPriceRange_looksUpIdsInChunks() {
+        List<ProductModel> products = LongStream.rangeClosed(1, 2500)
+                .mapToObj(id -> new ProductModel(id, "Product " + id, "Description", "Category", (double) id, 5))
+                .toList();
+        priceIndex.productsLoaded(products);
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> ((List<Long>) invocation.getArgument(0)).stream()
+                .map(id -> products.get((int) (id - 1))).toList());
+
+        List<ProductModel> result = productService.getProductsByPriceRange(0.0, 3000.0);
+
+        assertEquals(2500, result.size());
+        assertEquals(2500L, result.get(2499).getId());
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(productRepository, times(3)).findAllById(chunks.capture());
+        assertEquals(List.of(1000, 1000, 500), chunks.getAllValues().stream().map(List::size).toList());
+    }
+
     @Test
     //getting product by name
     void getProductsByName_success() {
@@ -157,6 +267,18 @@ class ProductServiceTest {
         verify(productRepository).findByNameContaining("Test");
     }
 
+    @Test
+    //getting product by name from the loaded trigram index
+    void getProductsByName_usesIndexWhenLoaded() {
+        nameIndex.productsLoaded(List.of(testProduct));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        List<ProductModel> result = productService.getProductsByName("product");
+
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findByNameContaining(any());
+    }
+
     @Test
     // getting products by category
     void getProductsByCategory_success() {
@@ -168,4 +290,268 @@ class ProductServiceTest {
         assertEquals(1, result.size());
         verify(productRepository).findByCategory("Category");
     }
+
+    @Test
+    //reserving stock when enough quantity is available
+    void reserveStock_success() {
+        when(productRepository.reserveStock(eq(1L), eq(2), any(), anyLong())).thenReturn(1);
+        when(productRepository.findStockPriceById(1L)).thenReturn(Optional.of(stockPrice(1L, 10.0, 3)));
+
+        ProductStockPrice result = productService.reserveStock(1L, 2);
+
+        assertEquals(3, result.getQuantity());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    //reserving more stock than available
+    void reserveStock_throwsExceptionWhenInsufficient() {
+        when(productRepository.reserveStock(eq(1L), eq(10), any(), anyLong())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        ProductException exception = assertThrows(ProductException.class, () -> productService.reserveStock(1L, 10));
+        assertEquals("Insufficient quantity for product: 1", exception.getMessage());
+    }
+
+    @Test
+    //releasing puts the units back into the product row
+    void releaseStock_success() {
+        when(productRepository.releaseStock(eq(1L), eq(2), any(), anyLong())).thenReturn(1);
+        when(productRepository.findStockPriceById(1L)).thenReturn(Optional.of(stockPrice(1L, 10.0, 5)));
+
+        ProductStockPrice result = productService.releaseStock(1L, 2);
+
+        assertEquals(5, result.getQuantity());
+    }
+
+    @Test
+    //releasing stock of a product that is gone
+    void releaseStock_throwsExceptionWhenNotFound() {
+        when(productRepository.releaseStock(eq(1L), eq(2), any(), anyLong())).thenReturn(0);
+
+        ProductException exception = assertThrows(ProductException.class, () -> productService.releaseStock(1L, 2));
+        assertEquals("Product not found with id: 1", exception.getMessage());
+    }
+
+    @Test
+    //reading a product by id remembers its version for conditional GETs
+    void getProductByIdWithVersion_recordsVersion() {
+        testProduct.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        productService.getProductByIdWithVersion(1L);
+
+        assertEquals("\"3\"", productService.getKnownVersion(1L).getEtag());
+    }
+
+    @Test
+    //a reservation changes the version, so the cached one is dropped
+    void reserveStock_invalidatesKnownVersion() {
+        versionTable.record(testProduct);
+        when(productRepository.reserveStock(eq(1L), eq(2), any(), anyLong())).thenReturn(1);
+        when(productRepository.findStockPriceById(1L)).thenReturn(Optional.of(stockPrice(1L, 10.0, 3)));
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(versionTable));
+
+        productService.reserveStock(1L, 2);
+
+        assertNull(productService.getKnownVersion(1L));
+    }
+
+    @Test
+    //hot products reserve from their stripes and never touch the product row
+    void reserveStock_hotProductUsesStripes() {
+        when(hotStockService.isHot(1L)).thenReturn(true);
+        when(hotStockService.reserve(1L, 2)).thenReturn(true);
+        when(hotStockService.totalQuantity(1L)).thenReturn(40);
+        when(productRepository.findStockPriceById(1L)).thenReturn(Optional.of(stockPrice(1L, 10.0, 0)));
+
+        ProductStockPrice result = productService.reserveStock(1L, 2);
+
+        assertEquals(40, result.getQuantity());
+        verify(productRepository, never()).reserveStock(any(), any(), any(), any());
+    }
+
+    @Test
+    //enabling hot mode moves the stock into stripes
+    void enableHotStock_splitsStock() {
+        testProduct.setQuantity(100);
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProductStockPrice result = productService.enableHotStock(1L, 8);
+
+        verify(hotStockService).split(1L, 100, 8);
+        assertEquals(0, testProduct.getQuantity());
+        assertEquals(100, result.getQuantity());
+    }
+
+    @Test
+    //updating a hot product writes the new quantity into its stripes
+    void updateProduct_hotProductResplitsStock() {
+        ProductModel updated = new ProductModel(1L, "Updated Product", "New Desc", "New Cat", 20.0, 30);
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(hotStockService.isHot(1L)).thenReturn(true);
+
+        ProductModel result = productService.updateProduct(1L, updated);
+
+        verify(hotStockService).resplit(1L, 30);
+        verify(hotStockService, never()).merge(any());
+        assertEquals(0, result.getQuantity());
+    }
+
+    @Test
+    //delta merges changed rows and tombstones in sequence order
+    void getDelta_mergesChangesAndDeletes() {
+        testProduct.setChangeSeq(5L);
+        ProductModel later = new ProductModel(2L, "Later", "Description", "Category", 10.0, 5);
+        later.setChangeSeq(9L);
+        when(productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any())).thenReturn(List.of(testProduct, later));
+        when(tombstoneRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any()))
+                .thenReturn(List.of(new ProductTombstone(7L, 6L, null)));
+
+        ProductDelta delta = productService.getDelta(3L, 2);
+
+        assertEquals(List.of(testProduct), delta.getChanged());
+        assertEquals(List.of(7L), delta.getDeleted());
+        assertEquals(6L, delta.getNextSince());
+        assertTrue(delta.isHasMore());
+    }
+
+    @Test
+    //an empty delta keeps the caller's position
+    void getDelta_emptyKeepsSince() {
+        when(productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any())).thenReturn(List.of());
+
+        ProductDelta delta = productService.getDelta(3L, 10);
+
+        assertEquals(3L, delta.getNextSince());
+        assertFalse(delta.isHasMore());
+    }
+
+    @Test
+    //a replay re-reads the changed rows and drops the deleted ones, like a batch from a peer
+    void replayChanges_appliesChangesAfterSince() {
+        testProduct.setChangeSeq(5L);
+        versionTable.record(new ProductModel(7L, "Gone", "Description", "Category", 10.0, 5));
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(versionTable));
+        when(productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any())).thenReturn(List.of(testProduct));
+        when(tombstoneRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(eq(3L), anyLong(), any()))
+                .thenReturn(List.of(new ProductTombstone(7L, 6L, null)));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        assertEquals(6L, productService.replayChanges(3L));
+        assertNotNull(productService.getKnownVersion(1L));
+        assertNull(productService.getKnownVersion(7L));
+    }
+
+    @Test
+    //every write gets a larger change sequence than the last one
+    void addProduct_assignsIncreasingChangeSeq() {
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        changeSequence.seed(Long.MAX_VALUE / 2);
+
+        ProductModel saved = productService.addProduct(testProduct);
+
+        assertEquals(Long.MAX_VALUE / 2 + 1, saved.getChangeSeq());
+    }
+
+    @Test
+    //inside a transaction the listeners only hear about the update once it commits
+    void updateProduct_notifiesListenersAfterCommit() {
+        ProductModel updated = new ProductModel(1L, "Updated Product", "New Desc", "New Cat", 20.0, 10);
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(versionTable));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.updateProduct(1L, updated);
+            assertNull(productService.getKnownVersion(1L));
+
+            testProduct.setVersion(4L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals("\"4\"", productService.getKnownVersion(1L).getEtag());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    //a rolled back delete leaves the caches alone
+    void deleteProduct_rollbackNotifiesNobody() {
+        versionTable.record(testProduct);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(versionTable));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.deleteProduct(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotNull(productService.getKnownVersion(1L));
+    }
+
+    @Test
+    //with the journal stock engine lists show its stock, the rows only catch up at the next flush
+    void getProductsByCategory_showsStockEngineQuantity() {
+        JournalStockEngine stockEngine = mock(JournalStockEngine.class);
+        ReflectionTestUtils.setField(productService, "stockEngine", stockEngine);
+        when(productRepository.findByCategory("Category")).thenReturn(List.of(testProduct));
+        when(stockEngine.quantity(1L)).thenReturn(3);
+
+        List<ProductModel> result = productService.getProductsByCategory("Category");
+
+        assertEquals(3, result.get(0).getQuantity());
+        assertEquals(5, testProduct.getQuantity());
+    }
+
+    @Test
+    //the journal stock engine never records the quantity of an update that rolled back
+    void updateProduct_rollbackNeverReachesStockEngine() {
+        JournalStockEngine stockEngine = mock(JournalStockEngine.class);
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(stockEngine));
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.updateProduct(1L, new ProductModel(1L, "Updated Product", "New Desc", "New Cat", 20.0, 10));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(stockEngine, never()).productSaved(any());
+    }
+
+    @Test
+    //peers are told about an update only once it committed, they re-read the row from the database
+    void updateProduct_reachesPeersAfterCommit() {
+        PeerInvalidationBroadcaster broadcaster = mock(PeerInvalidationBroadcaster.class);
+        ReflectionTestUtils.setField(productService, "changeListeners", List.of(broadcaster));
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.updateProduct(1L, new ProductModel(1L, "Updated Product", "New Desc", "New Cat", 20.0, 10));
+            verify(broadcaster, never()).productSaved(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(broadcaster).productSaved(testProduct);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private ProductStockPrice stockPrice(Long id, Double price, Integer quantity) {
+        return new ProductStockPrice() {
+            public Long getId() { return id; }
+            public Double getPrice() { return price; }
+            public Integer getQuantity() { return quantity; }
+        };
+    }
 }
\ No newline at end of file
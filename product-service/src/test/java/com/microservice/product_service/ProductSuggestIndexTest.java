@@ -0,0 +1,73 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.index.ProductSuggestIndex;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.model.ProductSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestIndexTest {
+
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestIndex();
+        index.productsLoaded(List.of(
+                new ProductModel(1L, "iPhone 15 Pro", "Desc", "phone", 900.0, 5),
+                new ProductModel(2L, "iPhone 15", "Desc", "phone", 800.0, 5),
+                new ProductModel(3L, "Pixel  Pro", "Desc", "phone", 700.0, 5),
+                new ProductModel(4L, "Crème Brûlée", "Desc", "food", 5.0, 5)));
+    }
+
+    @Test
+    //prefix matches the start of any word, ignoring case and accents
+    void suggest_matchesWordStarts() {
+        assertEquals(List.of(1L, 3L), ids(index.suggest("PRO", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("brul", 10)));
+        assertTrue(index.suggest("phone x", 10).isEmpty());
+    }
+
+    @Test
+    //reserved units raise the popularity of a product
+    void suggest_ranksByPopularity() {
+        index.stockReserved(3L, 2);
+        index.stockReserved(1L, 5);
+
+        assertEquals(List.of(1L, 3L), ids(index.suggest("p", 2)));
+        assertEquals(List.of(1L), ids(index.suggest("i", 1)));
+    }
+
+    @Test
+    //renamed and deleted products are updated in place
+    void changes_updateTrie() {
+        index.stockReserved(2L, 3);
+        index.productSaved(new ProductModel(2L, "Galaxy S24", "Desc", "phone", 800.0, 5));
+        index.productDeleted(3L);
+
+        assertEquals(List.of(1L), ids(index.suggest("p", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("gal", 10)));
+        assertEquals("Galaxy S24", index.suggest("s2", 1).get(0).getName());
+    }
+
+    @Test
+    //names are keyed up to 20 characters, a longer prefix still has to match in full
+    void suggest_longPrefixBeyondKeyDepth() {
+        index.productSaved(new ProductModel(5L, "Wireless Charging Station Duo", "Desc", "charger", 50.0, 5));
+        index.productSaved(new ProductModel(6L, "Wireless Charging Stand", "Desc", "charger", 40.0, 5));
+
+        assertEquals(List.of(5L), ids(index.suggest("wireless charging stat", 10)));
+        assertEquals(List.of(5L, 6L), ids(index.suggest("wireless charging st", 10)).stream().sorted().toList());
+        assertEquals(List.of(6L), ids(index.suggest("charging stand", 10)));
+        index.productDeleted(5L);
+        assertTrue(index.suggest("wireless charging stat", 10).isEmpty());
+    }
+
+    private List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+}
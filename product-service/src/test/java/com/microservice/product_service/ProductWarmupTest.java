@@ -0,0 +1,107 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.cache.ProductCache;
+import com.microservice.product_service.feed.ProductChangeSequence;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.peer.PeerInvalidationBroadcaster;
+import com.microservice.product_service.repository.ProductRepository;
+import com.microservice.product_service.service.ProductService;
+import com.microservice.product_service.service.ProductWarmup;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductWarmupTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private Environment environment;
+
+    @Mock
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 10);
+
+    @Spy
+    private ProductChangeSequence changeSequence = new ProductChangeSequence();
+
+    @InjectMocks
+    private ProductWarmup warmup;
+
+    @Test
+    void warmUp_loadsIndexesAndHotProductsThenMarksUp() {
+        ProductModel product = new ProductModel(1L, "Phone", "Desc", "phone", 10.0, 5);
+        when(productRepository.findAllByOrderByLastModifiedDesc(any(Pageable.class))).thenReturn(List.of(product));
+
+        warmup.warmUp();
+
+        verify(productService).loadIndexes();
+        assertSame(product, productCache.get(1L, id -> null));
+        verify(applicationInfoManager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+    }
+
+    @Test
+    //a failed warm-up must not keep the instance out of the registry
+    void warmUp_marksUpWhenLoadingFails() {
+        when(productRepository.findAllByOrderByLastModifiedDesc(any(Pageable.class))).thenThrow(new RuntimeException("db down"));
+
+        warmup.warmUp();
+
+        verify(applicationInfoManager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+    }
+
+    @Test
+    //peers skip a STARTING instance, what they wrote meanwhile is replayed once it is UP and again later
+    void warmUp_replaysChangesOnceUp() {
+        PeerInvalidationBroadcaster broadcaster = mock(PeerInvalidationBroadcaster.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(broadcaster).applyingPeerChanges(any());
+        ReflectionTestUtils.setField(warmup, "broadcaster", broadcaster);
+        ReflectionTestUtils.setField(warmup, "enabled", false);
+        ReflectionTestUtils.setField(warmup, "catchUpDelayMillis", 10L);
+        changeSequence.seed(Long.MAX_VALUE / 2);
+
+        warmup.warmUp();
+
+        InOrder inOrder = inOrder(applicationInfoManager, productService);
+        inOrder.verify(applicationInfoManager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+        inOrder.verify(productService, atLeastOnce()).replayChanges(Long.MAX_VALUE / 2);
+        verify(productService, timeout(1000).times(2)).replayChanges(anyLong());
+    }
+
+    @Test
+    void warmUp_disabledOnlyLoadsIndexes() {
+        ReflectionTestUtils.setField(warmup, "enabled", false);
+
+        warmup.warmUp();
+
+        verify(productService).loadIndexes();
+        verifyNoInteractions(productRepository);
+        verify(applicationInfoManager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+    }
+}
@@ -0,0 +1,66 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.exception.ProductException;
+import com.microservice.product_service.model.ProductModel;
+import com.microservice.product_service.repository.ReactiveProductRepository;
+import com.microservice.product_service.service.ReactiveProductService;
+import com.microservice.product_service.stock.JournalStockEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceTest {
+
+    @Mock
+    private ReactiveProductRepository reactiveProductRepository;
+
+    @InjectMocks
+    private ReactiveProductService reactiveProductService;
+
+    @Test
+    void getAllProducts_streamsRows() {
+        ProductModel a = new ProductModel(1L, "A", "Desc", "phone", 10.0, 5);
+        ProductModel b = new ProductModel(2L, "B", "Desc", "phone", 20.0, 3);
+        when(reactiveProductRepository.findAll()).thenReturn(Flux.just(a, b));
+
+        assertEquals(List.of(a, b), reactiveProductService.getAllProducts().collectList().block());
+    }
+
+    @Test
+    void getProductById_errorsWhenNotFound() {
+        when(reactiveProductRepository.findById(9L)).thenReturn(Mono.empty());
+
+        Mono<ProductModel> result = reactiveProductService.getProductById(9L);
+
+        ProductException error = assertThrows(ProductException.class, result::block);
+        assertEquals("Product not found with id: 9", error.getMessage());
+    }
+
+    @Test
+    void getProductsByPriceRange_rejectsInvertedRange() {
+        assertThrows(ProductException.class, () -> reactiveProductService.getProductsByPriceRange(50.0, 10.0).blockFirst());
+        verifyNoInteractions(reactiveProductRepository);
+    }
+
+    @Test
+    //with the journal engine the in-memory stock wins over the row
+    void getProductById_usesJournalStock() {
+        JournalStockEngine stockEngine = mock(JournalStockEngine.class);
+        ReflectionTestUtils.setField(reactiveProductService, "stockEngine", stockEngine);
+        when(stockEngine.quantity(1L)).thenReturn(2);
+        when(reactiveProductRepository.findById(1L)).thenReturn(Mono.just(new ProductModel(1L, "A", "Desc", "phone", 10.0, 5)));
+
+        assertEquals(2, reactiveProductService.getProductById(1L).block().getQuantity());
+    }
+}
@@ -0,0 +1,73 @@
+package com.microservice.product_service;
+
+import com.microservice.product_service.stock.StockJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    //appended changes get increasing lsns and can be read back after close
+    void append_thenRead_roundTrips() throws Exception {
+        Path file = dir.resolve("stock.journal");
+        List<StockJournal.Entry> durable = Collections.synchronizedList(new ArrayList<>());
+        try (StockJournal journal = new StockJournal(file, 10, durable::addAll)) {
+            assertEquals(11L, journal.append(1L, false, 3).join());
+            assertEquals(12L, journal.append(2L, true, 50).join());
+        }
+
+        List<StockJournal.Entry> entries = StockJournal.read(file);
+        assertEquals(List.of(new StockJournal.Entry(11, 1L, false, 3), new StockJournal.Entry(12, 2L, true, 50)), entries);
+        assertEquals(entries, durable);
+    }
+
+    @Test
+    //a record cut short by a crash is ignored
+    void read_ignoresTornTail() throws Exception {
+        Path file = dir.resolve("stock.journal");
+        try (StockJournal journal = new StockJournal(file, 0, entries -> {})) {
+            journal.append(1L, false, 3).join();
+            journal.append(2L, false, 4).join();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5), StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals(List.of(new StockJournal.Entry(1, 1L, false, 3)), StockJournal.read(file));
+    }
+
+    @Test
+    //once everything written is in the table the file starts over
+    void truncateIfCaughtUp_onlyWhenAllFlushed() throws Exception {
+        Path file = dir.resolve("stock.journal");
+        try (StockJournal journal = new StockJournal(file, 0, entries -> {})) {
+            journal.append(1L, false, 3).join();
+            journal.append(1L, false, 2).join();
+
+            journal.truncateIfCaughtUp(1);
+            assertEquals(2, StockJournal.read(file).size());
+
+            journal.truncateIfCaughtUp(2);
+            assertTrue(StockJournal.read(file).isEmpty());
+
+            assertEquals(3L, journal.append(1L, false, 1).join());
+        }
+    }
+
+    @Test
+    void missingFile_readsEmpty() throws Exception {
+        assertTrue(StockJournal.read(dir.resolve("none.journal")).isEmpty());
+    }
+}